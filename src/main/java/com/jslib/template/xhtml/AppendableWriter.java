@@ -0,0 +1,86 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+
+/**
+ * Unbuffered, not synchronized writer appending characters directly to an {@link Appendable}. Used when template is
+ * rendered to a string or to a caller provided appendable; since the target is itself a memory buffer an intermediate
+ * buffer would only add a copy. If target is a {@link StringBuilder} writer uses its specialized append methods.
+ * <p>
+ * This writer is owned by a {@link Serializer} instance and used by a single thread at a time.
+ *
+ * @author Iulian Rotaru
+ */
+final class AppendableWriter extends EscapingWriter {
+	/** Target appendable, null if this writer is not in use. */
+	private Appendable appendable;
+
+	/** Target appendable if it is a string builder, otherwise null. */
+	private StringBuilder builder;
+
+	/**
+	 * Prepare this writer for a new serialization.
+	 *
+	 * @param appendable target appendable, null to release current target.
+	 */
+	void reset(Appendable appendable) {
+		this.appendable = appendable;
+		this.builder = appendable instanceof StringBuilder ? (StringBuilder) appendable : null;
+	}
+
+	/** Always returns zero since there is nothing to flush; progressive flush does not apply to appendable targets. */
+	@Override
+	long size() {
+		return 0;
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (builder != null) {
+			builder.append((char) c);
+			return;
+		}
+		appendable.append((char) c);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		if (builder != null) {
+			builder.append(cbuf, off, len);
+			return;
+		}
+		for (int end = off + len; off < end; ++off) {
+			appendable.append(cbuf[off]);
+		}
+	}
+
+	@Override
+	public void write(String str) throws IOException {
+		if (builder != null) {
+			builder.append(str);
+			return;
+		}
+		appendable.append(str);
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		if (builder != null) {
+			builder.append(str, off, off + len);
+			return;
+		}
+		appendable.append(str, off, off + len);
+	}
+
+	/** Does nothing since this writer is not buffered. */
+	@Override
+	public void flush() {
+	}
+
+	/**
+	 * Does nothing since target is owned by serializer caller. This writer is never closed and can be reused.
+	 */
+	@Override
+	public void close() {
+	}
+}
@@ -1,77 +1,112 @@
-package com.jslib.template.xhtml;
-
-import java.util.HashSet;
-import java.util.Set;
-
-import com.jslib.api.dom.Attr;
-import com.jslib.api.dom.Element;
-import com.jslib.api.template.TemplateException;
-import com.jslib.lang.Pair;
-import com.jslib.lang.PairsList;
-
-/**
- * Set one or more element's attributes values. This operator is the main means to set element attributes value. There are also
- * specialized, convenient operators for common HTML attributes: id, value, src, href and title.
- * 
- * <pre>
- *  &lt;img data-attr="src:picture;title:description;" /&gt;
- * </pre>
- * 
- * Operand is an expression describing attribute name/property path, with next syntax:
- * 
- * <pre>
- *    expression := attrProperty (';' attrProperty)* ';'?
- *    attrProperty : = attributeName ':' propertyPath
- *    propertyPath := used to extract content value
- * </pre>
- * 
- * @author Iulian Rotaru
- */
-final class AttrOperator extends Operator
-{
-  /**
-   * Dynamic content reference.
-   */
-  private Content content;
-
-  /**
-   * Construct ATTR operator instance.
-   * 
-   * @param content dynamic content.
-   */
-  AttrOperator(Content content)
-  {
-    this.content = content;
-  }
-
-  /**
-   * Execute ATTR operator. Expression argument is set of attribute name / property path pairs. Property path is used to
-   * retrieve content value that is converted to string and used as attribute value.
-   * 
-   * @param element context element, unused,
-   * @param scope scope object,
-   * @param expression set of attribute name / property path pairs,
-   * @param arguments optional arguments, unused.
-   * @return always returns null for void.
-   * @throws TemplateException if expression is empty or not well formatted or if requested content value is undefined.
-   */
-  @Override
-  protected Object doExec(Element element, Object scope, String expression, Object... arguments) throws TemplateException
-  {
-    if(expression.isEmpty()) {
-      throw new TemplateException("Invalid ATTR operand. Attribute property path expression is empty.");
-    }
-    Set<Attr> syntheticAttributes = new HashSet<Attr>();
-
-    PairsList pairs = new PairsList(expression);
-    for(Pair pair : pairs) {
-      // accordingly this operator expression syntax first value is attribute name and second is property path
-      String value = content.getString(scope, pair.second());
-      if(value != null) {
-        syntheticAttributes.add(new AttrImpl(pair.first(), value));
-      }
-    }
-
-    return syntheticAttributes;
-  }
-}
+package com.jslib.template.xhtml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jslib.api.template.TemplateException;
+import com.jslib.format.Format;
+import com.jslib.lang.Pair;
+import com.jslib.lang.PairsList;
+import com.jslib.template.xhtml.OperatorsList.Meta;
+
+/**
+ * Set one or more element's attributes values. This operator is the main means to set element attributes value. There are also
+ * specialized, convenient operators for common HTML attributes: id, value, src, href and title.
+ * 
+ * <pre>
+ *  &lt;img data-attr="src:picture;title:description;" /&gt;
+ * </pre>
+ * 
+ * Operand is an expression describing attribute name/property path, with next syntax:
+ * 
+ * <pre>
+ *    expression := attrProperty (';' attrProperty)* ';'?
+ *    attrProperty : = attributeName ':' propertyPath
+ *    propertyPath := used to extract content value
+ * </pre>
+ * 
+ * @author Iulian Rotaru
+ */
+final class AttrOperator extends Operator
+{
+  /** Parent serializer instance. */
+  private Serializer serializer;
+
+  /**
+   * Construct ATTR operator instance.
+   * 
+   * @param serializer parent serializer instance.
+   */
+  AttrOperator(Serializer serializer)
+  {
+    this.serializer = serializer;
+  }
+
+  /**
+   * Execute ATTR operator. Expression argument is set of attribute name / property path pairs. Property path is used to
+   * retrieve content value that is converted to string and used as attribute value.
+   * 
+   * @param element context element, unused,
+   * @param scope scope object,
+   * @param meta operator meta-data, operand being set of attribute name / property path pairs parsed at compile time,
+   * @param format optional format instance, unused.
+   * @return always returns null for void.
+   * @throws TemplateException if requested content value is undefined.
+   */
+  @Override
+  protected Object doExec(ElementInstruction element, Object scope, Meta meta, Format format) throws TemplateException
+  {
+    AttrExpression[] attrExpressions = meta.attrExpressions;
+    for(AttrExpression attrExpression : attrExpressions) {
+      String value = content.getString(scope, attrExpression.propertyPath);
+      if(value != null) {
+        serializer.addAttribute(attrExpression.attrName, value);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Parse ATTR operand into attribute expressions list. This method is invoked once, when template is compiled.
+   * 
+   * @param expression ATTR operand.
+   * @return attribute expressions, in operand order.
+   * @throws TemplateException if expression is empty or a property path is empty.
+   */
+  static AttrExpression[] parse(String expression)
+  {
+    if(expression.isEmpty()) {
+      throw new TemplateException("Invalid ATTR operand. Attribute property path expression is empty.");
+    }
+
+    List<AttrExpression> attrExpressions = new ArrayList<>();
+    for(Pair pair : new PairsList(expression)) {
+      // accordingly this operator expression syntax first value is attribute name and second is property path
+      if(pair.first() == null || pair.first().isEmpty() || pair.second() == null) {
+        throw new TemplateException("Invalid ATTR operand |%s|. Bad attribute name / property path pair.", expression);
+      }
+      attrExpressions.add(new AttrExpression(pair.first(), new PropertyPath(pair.second())));
+    }
+    return attrExpressions.toArray(new AttrExpression[attrExpressions.size()]);
+  }
+
+  /**
+   * Attribute expression parsed from ATTR operand: attribute name and property path. Instance is immutable.
+   * 
+   * @author Iulian Rotaru
+   */
+  static final class AttrExpression
+  {
+    /** Attribute name. */
+    final String attrName;
+
+    /** Property path of the content value used as attribute value. */
+    final PropertyPath propertyPath;
+
+    AttrExpression(String attrName, PropertyPath propertyPath)
+    {
+      this.attrName = attrName;
+      this.propertyPath = propertyPath;
+    }
+  }
+}
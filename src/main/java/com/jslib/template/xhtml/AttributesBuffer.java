@@ -0,0 +1,81 @@
+package com.jslib.template.xhtml;
+
+import java.util.Arrays;
+
+/**
+ * Attributes created by attribute operators while serializing an element start tag. Buffer is owned by a {@link Serializer}
+ * instance and reused for all elements and all serializations; its storage grows to the largest attributes count seen and is
+ * never shrunk, so that after warm up collecting attributes does not allocate.
+ * <p>
+ * Buffer does not check for duplicated attributes; attributes declared both static and by operators, or by more than one
+ * operator, are rejected at template compile time, see {@link ElementInstruction}.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Iulian Rotaru
+ */
+final class AttributesBuffer {
+	/** Initial storage capacity. */
+	private static final int INITIAL_CAPACITY = 8;
+
+	/** Attribute names, in the order attributes are added. */
+	private String[] names = new String[INITIAL_CAPACITY];
+
+	/** Attribute values, parallel with {@link #names}. */
+	private String[] values = new String[INITIAL_CAPACITY];
+
+	/** Number of attributes in buffer. */
+	private int size;
+
+	/**
+	 * Add attribute to buffer.
+	 *
+	 * @param name attribute name,
+	 * @param value attribute value, not escaped.
+	 */
+	void add(String name, String value) {
+		if (size == names.length) {
+			names = Arrays.copyOf(names, 2 * size);
+			values = Arrays.copyOf(values, 2 * size);
+		}
+		names[size] = name;
+		values[size] = value;
+		++size;
+	}
+
+	/** Remove all attributes. Attribute references are released so that pooled serializers do not retain content values. */
+	void clear() {
+		Arrays.fill(names, 0, size, null);
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Get the number of attributes in buffer.
+	 *
+	 * @return attributes count.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Get attribute name.
+	 *
+	 * @param index attribute index.
+	 * @return attribute name.
+	 */
+	String getName(int index) {
+		return names[index];
+	}
+
+	/**
+	 * Get attribute value.
+	 *
+	 * @param index attribute index.
+	 * @return attribute value.
+	 */
+	String getValue(int index) {
+		return values[index];
+	}
+}
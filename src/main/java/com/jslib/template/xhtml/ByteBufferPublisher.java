@@ -0,0 +1,279 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reactive publisher for serialized template, UTF-8 encoded. Template is rendered by a {@link RenderTask} on threads from
+ * given executor, never on subscriber thread: subscriber {@link Flow.Subscription#request(long) request} and
+ * {@link Flow.Subscription#cancel() cancel} only update demand and do not block, so that an event loop can serve many slow
+ * clients with few threads. Rendering executes task steps until a buffer is ready and publishes it; when subscriber demand
+ * is zero rendering returns and its thread is free for other work, and subscriber request resubmits rendering to executor.
+ * No thread is parked while waiting for a slow subscriber.
+ * <p>
+ * Every published buffer holds up to serializer writer buffer size bytes; buffer is emitted when writer buffer is full or
+ * when serializer flushes, e.g. on template flush policy, see {@link FlushPolicy}. Published buffers are owned by
+ * subscriber and are not reused.
+ * <p>
+ * This publisher renders template once and accepts a single subscriber.
+ *
+ * @author Iulian Rotaru
+ */
+final class ByteBufferPublisher implements Flow.Publisher<ByteBuffer> {
+	/** Template rendering logic, creates render task for serialized template output. */
+	interface Renderer {
+		/**
+		 * Create render task for template serialization to given output stream.
+		 *
+		 * @param stream output stream for serialized template.
+		 * @return render task, not yet started.
+		 * @throws IOException if prolog write operation fails.
+		 */
+		RenderTask render(OutputStream stream) throws IOException;
+	}
+
+	/** Template rendering logic. */
+	private final Renderer renderer;
+
+	/** Executor for template rendering. */
+	private final Executor executor;
+
+	/** Guard for single subscriber. */
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+
+	/**
+	 * Construct publisher for template rendering. Rendering starts on subscribe.
+	 *
+	 * @param renderer template rendering logic,
+	 * @param executor executor for template rendering.
+	 */
+	ByteBufferPublisher(Renderer renderer, Executor executor) {
+		this.renderer = renderer;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+		if (!subscribed.compareAndSet(false, true)) {
+			Emitter emitter = new Emitter(subscriber);
+			emitter.cancelled = true;
+			subscriber.onSubscribe(emitter);
+			subscriber.onError(new IllegalStateException("Template publisher accepts a single subscriber."));
+			return;
+		}
+		Emitter emitter = new Emitter(subscriber);
+		subscriber.onSubscribe(emitter);
+		emitter.schedule();
+	}
+
+	/**
+	 * Subscription and serializer output stream. Bytes written by serializer are queued as byte buffers, one buffer per
+	 * write, and published while subscriber demand allows. Rendering is executed in passes submitted to publisher executor;
+	 * at most one pass is scheduled or running at a time, so render task and pending buffers are not accessed concurrently.
+	 *
+	 * @author Iulian Rotaru
+	 */
+	private final class Emitter extends OutputStream implements Flow.Subscription, Runnable {
+		/** Subscriber receiving rendered buffers. */
+		private final Flow.Subscriber<? super ByteBuffer> subscriber;
+
+		/** Buffers written by serializer and not yet published, usually at most one. Accessed only by rendering pass. */
+		private final Queue<ByteBuffer> pending = new ArrayDeque<>();
+
+		/** Template render task, null before first rendering pass. Accessed only by rendering pass. */
+		private RenderTask task;
+
+		/** Number of buffers requested by subscriber and not yet published. Guarded by this emitter monitor. */
+		private long demand;
+
+		/** True if subscription was cancelled. Guarded by this emitter monitor. */
+		private boolean cancelled;
+
+		/** Error for invalid subscriber request, null if none. Guarded by this emitter monitor. */
+		private Throwable failure;
+
+		/**
+		 * True while a rendering pass is scheduled or running, and after subscriber terminal signal. First pass is scheduled
+		 * on subscribe. Guarded by this emitter monitor.
+		 */
+		private boolean scheduled = true;
+
+		Emitter(Flow.Subscriber<? super ByteBuffer> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			synchronized (this) {
+				if (n <= 0) {
+					// reactive streams rule 3.9: non-positive request is signaled as illegal argument
+					failure = new IllegalArgumentException("Invalid request. Requested buffers count should be positive.");
+					cancelled = true;
+				} else {
+					demand += n;
+					if (demand < 0) {
+						// demand overflow means unbounded demand
+						demand = Long.MAX_VALUE;
+					}
+				}
+				if (scheduled) {
+					return;
+				}
+				scheduled = true;
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			synchronized (this) {
+				cancelled = true;
+				if (scheduled) {
+					return;
+				}
+				scheduled = true;
+			}
+			// resume rendering so that render task resources are released
+			schedule();
+		}
+
+		/** Submit rendering pass to publisher executor. Caller should set scheduled flag. */
+		void schedule() {
+			try {
+				executor.execute(this);
+			} catch (RejectedExecutionException e) {
+				// no rendering pass is running so it is safe to terminate from caller thread
+				terminate(e);
+			}
+		}
+
+		/**
+		 * Rendering pass executed by publisher executor. Run render task steps until a buffer is ready and publish it, while
+		 * subscriber demand allows. Return without signal if demand is zero; subscriber request schedules next pass. Signal
+		 * subscriber completion or error when render task is done.
+		 */
+		@Override
+		public void run() {
+			try {
+				checkCancelled();
+				if (task == null) {
+					task = renderer.render(this);
+				}
+				while (!pending.isEmpty() || !task.isDone()) {
+					if (pending.isEmpty()) {
+						// one step at a time so that emitter holds the output of a single step, usually one buffer
+						task.run(1);
+						continue;
+					}
+					if (!consumeDemand()) {
+						return;
+					}
+					subscriber.onNext(pending.remove());
+				}
+			} catch (Throwable t) {
+				terminate(t);
+				return;
+			}
+			complete();
+		}
+
+		/**
+		 * Consume one requested buffer. If there is no demand clear scheduled flag so that next subscriber request resumes
+		 * rendering.
+		 *
+		 * @return true if a requested buffer was consumed, false if demand is zero.
+		 * @throws IOException if subscription is cancelled.
+		 */
+		private synchronized boolean consumeDemand() throws IOException {
+			checkCancelled();
+			if (demand == 0) {
+				scheduled = false;
+				return false;
+			}
+			if (demand != Long.MAX_VALUE) {
+				--demand;
+			}
+			return true;
+		}
+
+		/**
+		 * Throw exception if subscription is cancelled.
+		 *
+		 * @throws IOException if subscription is cancelled.
+		 */
+		private synchronized void checkCancelled() throws IOException {
+			if (cancelled) {
+				throw new IOException("Subscription cancelled.");
+			}
+		}
+
+		/**
+		 * Signal subscriber completion after template is rendered. If subscriber made an invalid request after last published
+		 * buffer signal error instead, as required by reactive streams rule 3.9; if subscription was cancelled do not signal.
+		 */
+		private void complete() {
+			Throwable failure;
+			boolean cancelled;
+			synchronized (this) {
+				failure = this.failure;
+				cancelled = this.cancelled;
+			}
+			if (failure != null) {
+				subscriber.onError(failure);
+			} else if (!cancelled) {
+				subscriber.onComplete();
+			}
+		}
+
+		/**
+		 * Cancel render task, if any, and signal subscriber error for given rendering exception. Scheduled flag stays set so
+		 * that no rendering pass is scheduled after termination.
+		 *
+		 * @param t rendering exception.
+		 */
+		private void terminate(Throwable t) {
+			if (task != null) {
+				task.cancel();
+			}
+			pending.clear();
+			Throwable error = error(t);
+			if (error != null) {
+				subscriber.onError(error);
+			}
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) throws IOException {
+			if (len == 0) {
+				return;
+			}
+			pending.add(ByteBuffer.wrap(Arrays.copyOfRange(bytes, off, off + len)));
+		}
+
+		/**
+		 * Get the error to signal to subscriber for given rendering exception.
+		 *
+		 * @param t rendering exception.
+		 * @return error to signal or null if subscription was cancelled by subscriber.
+		 */
+		private synchronized Throwable error(Throwable t) {
+			if (failure != null) {
+				return failure;
+			}
+			return cancelled ? null : t;
+		}
+	}
+}
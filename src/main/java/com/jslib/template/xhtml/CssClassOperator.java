@@ -1,74 +1,137 @@
-package com.jslib.template.xhtml;
-
-import com.jslib.api.dom.Element;
-import com.jslib.api.template.TemplateException;
-import com.jslib.lang.Pair;
-import com.jslib.lang.PairsList;
-
-/**
- * Add or remove element CSS class considering conditional expression value. In sample code there are two class expressions
- * evaluated in natural order. If conditional expression is true add related class otherwise remove it. In example, if
- * <code>type</code> value is <code>DIRECTORY</code> add CSS class <code>directory</code> to <code>div</code> element otherwise
- * add <code>file</code> class.
- * <p>
- * 
- * <pre>
- *  &lt;div data-css-class="type=DIRECTORY:directory;!type=DIRECTORY:file;" /&gt;
- * </pre>
- * 
- * Operand is a list of semicolon separated CSS class expressions, see syntax below. A class expression has a conditional
- * expression as described by {@link ConditionalExpression} class description and a CSS class name separated by colon.
- * <p>
- * 
- * <pre>
- *    operand = class-expression *( ';' class-expression ) [ ';' ]
- *    class-expression = conditional-expression ':' class-name
- *    
- *    ; conditional-expression = see conditional expression class description
- *    ; class-name = CSS class name
- * </pre>
- * 
- * @author Iulian Rotaru
- */
-final class CssClassOperator extends Operator {
-	/** Dynamic content reference. */
-	private Content content;
-
-	/**
-	 * Construct CSS_CLASS operator instance.
-	 * 
-	 * @param serializer parent serializer,
-	 * @param content dynamic content.
-	 */
-	CssClassOperator(Serializer serializer, Content content) {
-		this.content = content;
-	}
-
-	@Override
-	protected Object doExec(Element element, Object scope, String expression, Object... arguments) throws TemplateException {
-		if (expression.isEmpty()) {
-			throw new TemplateException("Invalid CSS_CLASS operand. Expression is empty.");
-		}
-
-		CssClass cssClass = new CssClass(element);
-		PairsList pairs = new PairsList(expression);
-
-		for (Pair pair : pairs) {
-			// accordingly CSS_CLASS operator syntax first pair value is a conditional expression and the second is the CSS
-			// class name
-
-			ConditionalExpression conditionalExpression = new ConditionalExpression(content, scope, pair.first());
-			String className = pair.second();
-
-			if (conditionalExpression.value()) {
-				log.debug("True conditional expression |{template_expression}|. Add CSS class |{css_class}| to element |{dom_element}|.", pair.first(), className, element.trace());
-				cssClass.add(className);
-			} else {
-				log.debug("False conditional expression |{template_expression}|. Remove CSS class |{css_class}| from element |{dom_element}|.", pair.first(), className, element.trace());
-				cssClass.remove(className);
-			}
-		}
-
-		return cssClass;
-	}
-}
+package com.jslib.template.xhtml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jslib.api.template.TemplateException;
+import com.jslib.format.Format;
+import com.jslib.lang.Pair;
+import com.jslib.lang.PairsList;
+import com.jslib.template.xhtml.OperatorsList.Meta;
+
+/**
+ * Add or remove element CSS class considering conditional expression value. In sample code there are two class expressions
+ * evaluated in natural order. If conditional expression is true add related class otherwise remove it. In example, if
+ * <code>type</code> value is <code>DIRECTORY</code> add CSS class <code>directory</code> to <code>div</code> element otherwise
+ * add <code>file</code> class.
+ * <p>
+ * 
+ * <pre>
+ *  &lt;div data-css-class="type=DIRECTORY:directory;!type=DIRECTORY:file;" /&gt;
+ * </pre>
+ * 
+ * Operand is a list of semicolon separated CSS class expressions, see syntax below. A class expression has a conditional
+ * expression as described by {@link ConditionalExpression} class description and a CSS class name separated by colon.
+ * <p>
+ * 
+ * <pre>
+ *    operand = class-expression *( ';' class-expression ) [ ';' ]
+ *    class-expression = conditional-expression ':' class-name
+ *    
+ *    ; conditional-expression = see conditional expression class description
+ *    ; class-name = CSS class name
+ * </pre>
+ * 
+ * @author Iulian Rotaru
+ */
+final class CssClassOperator extends Operator {
+	/** Parent serializer instance. */
+	private Serializer serializer;
+
+	/** CSS class names list reused by all executions of this operator instance. */
+	private final List<String> classNames = new ArrayList<>();
+
+	/** CSS class attribute value builder reused by all executions of this operator instance. */
+	private final StringBuilder builder = new StringBuilder();
+
+	/**
+	 * Construct CSS_CLASS operator instance.
+	 * 
+	 * @param serializer parent serializer.
+	 */
+	CssClassOperator(Serializer serializer) {
+		this.serializer = serializer;
+	}
+
+	/**
+	 * Execute CSS_CLASS operator. Start with static CSS class names, tokenized at template compile time, then evaluate class
+	 * expressions in operand order, adding or removing CSS class names. Resulting class attribute is added to serializer
+	 * attributes buffer.
+	 * 
+	 * @param element context element,
+	 * @param scope scope object,
+	 * @param meta operator meta-data, operand being class expressions parsed at compile time,
+	 * @param format optional format instance, unused.
+	 * @return always returns null for void.
+	 * @throws TemplateException if a conditional expression is not valid or content value is undefined.
+	 */
+	@Override
+	protected Object doExec(ElementInstruction element, Object scope, Meta meta, Format format) throws TemplateException {
+		ClassExpression[] classExpressions = meta.classExpressions;
+		classNames.clear();
+		for (String className : element.getCssClassNames()) {
+			classNames.add(className);
+		}
+
+		for (ClassExpression classExpression : classExpressions) {
+			if (classExpression.conditionalExpression.evaluate(content, scope)) {
+				log.debug("True conditional expression |{template_expression}|. Add CSS class |{css_class}| to element |{dom_element}|.", classExpression.conditionalExpression, classExpression.className, element);
+				if (!classNames.contains(classExpression.className)) {
+					classNames.add(classExpression.className);
+				}
+			} else {
+				log.debug("False conditional expression |{template_expression}|. Remove CSS class |{css_class}| from element |{dom_element}|.", classExpression.conditionalExpression, classExpression.className, element);
+				classNames.remove(classExpression.className);
+			}
+		}
+
+		builder.setLength(0);
+		for (int i = 0; i < classNames.size(); ++i) {
+			if (i > 0) {
+				builder.append(' ');
+			}
+			builder.append(classNames.get(i));
+		}
+		serializer.addAttribute("class", builder.toString());
+		return null;
+	}
+
+	/**
+	 * Parse CSS_CLASS operand into class expressions list. This method is invoked once, when template is compiled.
+	 * 
+	 * @param expression CSS_CLASS operand.
+	 * @return class expressions, in operand order.
+	 * @throws TemplateException if operand is empty.
+	 */
+	static ClassExpression[] parse(String expression) {
+		if (expression.isEmpty()) {
+			throw new TemplateException("Invalid CSS_CLASS operand. Expression is empty.");
+		}
+
+		List<ClassExpression> classExpressions = new ArrayList<>();
+		for (Pair pair : new PairsList(expression)) {
+			// accordingly CSS_CLASS operator syntax first pair value is a conditional expression and the second is the CSS
+			// class name
+			classExpressions.add(new ClassExpression(new ConditionalExpression(pair.first()), pair.second()));
+		}
+		return classExpressions.toArray(new ClassExpression[classExpressions.size()]);
+	}
+
+	/**
+	 * CSS class expression parsed from CSS_CLASS operand: conditional expression and CSS class name. Instance is immutable.
+	 * 
+	 * @author Iulian Rotaru
+	 */
+	static final class ClassExpression {
+		/** Conditional expression controlling CSS class presence. */
+		final ConditionalExpression conditionalExpression;
+
+		/** CSS class name. */
+		final String className;
+
+		ClassExpression(ConditionalExpression conditionalExpression, String className) {
+			this.conditionalExpression = conditionalExpression;
+			this.className = className;
+		}
+	}
+}
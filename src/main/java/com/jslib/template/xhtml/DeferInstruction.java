@@ -0,0 +1,52 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+
+/**
+ * Deferred element instruction compiled for elements marked with <code>data-defer</code> attribute. It is meant for page
+ * fragments whose content is slow to get, e.g. content getters calling slow backends. If template has a defer executor
+ * configured, serializer writes a placeholder for deferred element, continues with the rest of the document and renders
+ * deferred element concurrently; rendered fragments are appended at document end, in completion order, and replace their
+ * placeholders on client. If there is no executor configured, or template is an XML document for which content after root
+ * element is not well formed, deferred element is rendered in place, as usual.
+ * <p>
+ * Deferred element is rendered by a separate serializer with the same content instance and object scope, so content getters
+ * should be safe to call concurrently.
+ *
+ * @author Iulian Rotaru
+ */
+final class DeferInstruction extends Instruction {
+	/** Attribute marking elements rendered deferred. */
+	static final String ATTR_DEFER = "data-defer";
+
+	/** Compiled deferred element. */
+	private final Instruction[] body;
+
+	/**
+	 * Construct deferred element instruction.
+	 *
+	 * @param body compiled deferred element.
+	 */
+	DeferInstruction(Instruction[] body) {
+		this.body = body;
+	}
+
+	@Override
+	void exec(Serializer serializer, Object scope) throws IOException {
+		serializer.defer(body, scope);
+	}
+
+	@Override
+	long weight() {
+		long weight = OBJECT_OVERHEAD;
+		for (Instruction instruction : body) {
+			weight += instruction.weight();
+		}
+		return weight;
+	}
+
+	@Override
+	public String toString() {
+		return ATTR_DEFER;
+	}
+}
@@ -0,0 +1,569 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.jslib.api.dom.Attr;
+import com.jslib.api.dom.ChildNode;
+import com.jslib.api.dom.Element;
+import com.jslib.api.template.TemplateException;
+import com.jslib.lang.BugError;
+import com.jslib.template.xhtml.OperatorsList.Meta;
+import com.jslib.util.Strings;
+
+/**
+ * Compiled template element. Keeps everything serializer needs to process a template element: tag name, empty tag flag,
+ * prepared {@link OperatorsList operators list}, static attributes and compiled child instructions. All are resolved at
+ * template compile time so that serializer does not need to scan DOM element on every serialization.
+ * <p>
+ * Only elements declaring operators are compiled to element instructions. Operator free elements and text nodes are
+ * serialized at compile time and merged into pre-escaped static text chunks, see {@link #compile(Element, boolean)}. So a
+ * sequence of static markup, no matter how many elements and attributes it contains, is written with a single writer call.
+ * <p>
+ * Child instructions are compiled only if serializer may actually process them, that is, element has no content operator or
+ * content operator is {@link Opcode#OBJECT}. For list and map operators first child elements are compiled as item templates,
+ * see {@link #getItemTemplate(int)}.
+ * <p>
+ * Source DOM element is still referenced but only for diagnostic messages.
+ *
+ * @author Iulian Rotaru
+ */
+final class ElementInstruction extends Instruction {
+	/** Empty instructions list used for elements without child instructions. */
+	private static final Instruction[] EMPTY_CHILDREN = new Instruction[0];
+
+	/** Document head tag name. */
+	private static final String HEAD_TAG = "head";
+
+	/** Source DOM element used only for diagnostic messages. */
+	private final Element element;
+
+	/** Case sensitive tag name. */
+	private final String tag;
+
+	/** True if element is declared without content, see {@link HTML#EMPTY_TAGS}. */
+	private final boolean emptyTag;
+
+	/**
+	 * Pre-built start tag, including static attributes and closing mark, used when scope object is not null and element has no
+	 * attribute operators.
+	 */
+	private final String startTag;
+
+	/**
+	 * Pre-built start tag open part, that is, tag name and static attributes but no closing mark, used when scope object is not
+	 * null and element has attribute operators. Attributes created by operators are written after it.
+	 */
+	private final String openStartTag;
+
+	/** Pre-built start tag, including static attributes and closing mark, used when scope object is null. */
+	private final String nullScopeStartTag;
+
+	/** Pre-built end tag. */
+	private final String endTag;
+
+	/** True if source DOM element has child elements. */
+	private final boolean hasChildren;
+
+	/** Element operators list, prepared for list or map item if this element is an item template. */
+	private final OperatorsList operators;
+
+	/** Static CSS class names, tokenized at compile time; empty if element has no <code>class</code> attribute. */
+	private final String[] cssClassNames;
+
+	/** Compiled child instructions, possible empty. */
+	private final Instruction[] children;
+
+	/** Item templates used by list and map operators, possible empty. */
+	private final ElementInstruction[] itemTemplates;
+
+	/**
+	 * Compile template element and, recursively, its descendants.
+	 *
+	 * @param element template element,
+	 * @param isItem true if element is an item template for list or map operator,
+	 * @param operatorsSerialization true if operators are included into serialized document.
+	 * @throws TemplateException if element operators list is not valid.
+	 */
+	ElementInstruction(Element element, boolean isItem, boolean operatorsSerialization) {
+		this.element = element;
+		this.tag = element.getCaseSensitiveTag();
+		this.emptyTag = HTML.EMPTY_TAGS.contains(this.tag);
+		this.hasChildren = element.hasChildren();
+		this.operators = isItem ? new OperatorsList(element, true) : new OperatorsList(element);
+
+		List<Attr> attributes = new ArrayList<>();
+		List<Attr> nullScopeAttributes = new ArrayList<>();
+		Attr cssClass = null;
+		boolean foundDataCssClass = false;
+		for (Attr attr : element.getAttrs()) {
+			final AttrImpl attrImpl = new AttrImpl(attr);
+			nullScopeAttributes.add(attrImpl);
+			if (!"class".equalsIgnoreCase(attr.getName())) {
+				attributes.add(attrImpl);
+			} else {
+				cssClass = attrImpl;
+			}
+			if ("data-css-class".equalsIgnoreCase(attr.getName())) {
+				foundDataCssClass = true;
+			}
+		}
+		if (!foundDataCssClass && cssClass != null) {
+			// takes care to preserve static CSS class if CSS_CLASS operator is not present
+			attributes.add(cssClass);
+		}
+		checkAttributeOperators(element, this.operators, attributes);
+		List<String> cssClassNames = cssClass != null ? Strings.split(cssClass.getValue()) : null;
+		this.cssClassNames = cssClassNames != null ? cssClassNames.toArray(new String[cssClassNames.size()]) : new String[0];
+
+		this.startTag = buildStartTag(this.tag, attributes, this.emptyTag, operatorsSerialization);
+		this.openStartTag = this.startTag.substring(0, this.startTag.length() - (this.emptyTag ? 3 : 1));
+		// on null scope all attributes are written as they are, including static CSS class
+		this.nullScopeStartTag = buildStartTag(this.tag, nullScopeAttributes, this.emptyTag, operatorsSerialization);
+		this.endTag = "</" + this.tag + ">";
+
+		Opcode contentOpcode = operators.hasContentOperator() ? operators.getContentOperatorMeta().opcode : Opcode.NONE;
+		switch (contentOpcode) {
+		case NONE:
+		case OBJECT:
+			this.children = compileChildren(element, operatorsSerialization);
+			this.itemTemplates = new ElementInstruction[0];
+			break;
+
+		case LIST:
+		case OLIST:
+			this.children = EMPTY_CHILDREN;
+			this.itemTemplates = compileItemTemplates(element, 1, operatorsSerialization);
+			break;
+
+		case MAP:
+		case OMAP:
+			this.children = EMPTY_CHILDREN;
+			this.itemTemplates = compileItemTemplates(element, 2, operatorsSerialization);
+			break;
+
+		default:
+			// remaining content operators fully process element content and children are never serialized
+			this.children = EMPTY_CHILDREN;
+			this.itemTemplates = new ElementInstruction[0];
+		}
+	}
+
+	/**
+	 * Compile template element into a list of instructions. If element declares operators it is compiled into an element
+	 * instruction; otherwise element is serialized at compile time, together with all operator free descendants, into static
+	 * text instructions. Adjacent static text is merged so that resulting list never has two consecutive text instructions.
+	 *
+	 * @param element template element,
+	 * @param operatorsSerialization true if operators are included into serialized document.
+	 * @return compiled instructions, never empty.
+	 * @throws TemplateException if an element operators list is not valid.
+	 */
+	static Instruction[] compile(Element element, boolean operatorsSerialization) {
+		List<Instruction> instructions = new ArrayList<>();
+		StringBuilder text = new StringBuilder();
+		compile(element, operatorsSerialization, instructions, text);
+		flush(instructions, text);
+		return instructions.toArray(new Instruction[instructions.size()]);
+	}
+
+	/**
+	 * Compile element child nodes, merging operator free elements and text nodes into static text instructions.
+	 *
+	 * @param element parent element,
+	 * @param operatorsSerialization true if operators are included into serialized document.
+	 * @return compiled child instructions, possible empty.
+	 */
+	private static Instruction[] compileChildren(Element element, boolean operatorsSerialization) {
+		List<Instruction> instructions = new ArrayList<>();
+		StringBuilder text = new StringBuilder();
+		compileChildren(element, operatorsSerialization, instructions, text);
+		flush(instructions, text);
+		return instructions.toArray(new Instruction[instructions.size()]);
+	}
+
+	/**
+	 * Compile element into given instructions list. Static markup is accumulated into text builder that is flushed only when
+	 * an element with operators is found. Elements marked with <code>data-defer</code> are compiled into a deferred
+	 * instruction and elements marked with <code>data-flush</code> are followed by a flush instruction.
+	 *
+	 * @param element template element,
+	 * @param operatorsSerialization true if operators are included into serialized document,
+	 * @param instructions instructions list,
+	 * @param text static text builder.
+	 */
+	private static void compile(Element element, boolean operatorsSerialization, List<Instruction> instructions, StringBuilder text) {
+		if (hasAttr(element, DeferInstruction.ATTR_DEFER)) {
+			// deferred element is compiled standalone since it is rendered separately, possible concurrently
+			flush(instructions, text);
+			List<Instruction> body = new ArrayList<>();
+			StringBuilder bodyText = new StringBuilder();
+			compileElement(element, operatorsSerialization, body, bodyText);
+			flush(body, bodyText);
+			instructions.add(new DeferInstruction(body.toArray(new Instruction[body.size()])));
+		} else {
+			compileElement(element, operatorsSerialization, instructions, text);
+		}
+
+		if (hasAttr(element, FlushInstruction.ATTR_FLUSH)) {
+			// flush point after marked element; serializer decides at runtime if output is actually flushed
+			flush(instructions, text);
+			instructions.add(FlushInstruction.MARKED);
+		}
+	}
+
+	/**
+	 * Compile element itself, ignoring compile time marks, into given instructions list. If element has operators it is
+	 * compiled into an element instruction, otherwise it is appended to static text builder. Document head with operators is
+	 * followed by a head flush point since its end tag is not part of static text.
+	 *
+	 * @param element template element,
+	 * @param operatorsSerialization true if operators are included into serialized document,
+	 * @param instructions instructions list,
+	 * @param text static text builder.
+	 */
+	private static void compileElement(Element element, boolean operatorsSerialization, List<Instruction> instructions, StringBuilder text) {
+		if (hasOperators(element)) {
+			flush(instructions, text);
+			instructions.add(new ElementInstruction(element, false, operatorsSerialization));
+			if (HEAD_TAG.equalsIgnoreCase(element.getTag())) {
+				instructions.add(FlushInstruction.HEAD);
+			}
+		} else {
+			// operator free element has the same serialization no matter the scope object
+			final String tag = element.getCaseSensitiveTag();
+			text.append('<');
+			text.append(tag);
+			appendAttributes(text, element.getAttrs(), operatorsSerialization);
+			if (HTML.EMPTY_TAGS.contains(tag)) {
+				text.append(" />");
+			} else {
+				text.append('>');
+				compileChildren(element, operatorsSerialization, instructions, text);
+				text.append("</");
+				text.append(tag);
+				text.append('>');
+			}
+		}
+	}
+
+	/**
+	 * Compile element child nodes into given instructions list. Text nodes are escaped and appended to static text builder.
+	 *
+	 * @param element parent element,
+	 * @param operatorsSerialization true if operators are included into serialized document,
+	 * @param instructions instructions list,
+	 * @param text static text builder.
+	 */
+	private static void compileChildren(Element element, boolean operatorsSerialization, List<Instruction> instructions, StringBuilder text) {
+		for (ChildNode node : element.getChildNodes()) {
+			if (node.isElement()) {
+				compile(node.asElement(), operatorsSerialization, instructions, text);
+			} else {
+				text.append(Strings.escapeXML(node.asText()));
+			}
+		}
+	}
+
+	/**
+	 * Move accumulated static text, if any, into a text instruction and reset text builder.
+	 *
+	 * @param instructions instructions list,
+	 * @param text static text builder.
+	 */
+	private static void flush(List<Instruction> instructions, StringBuilder text) {
+		if (text.length() > 0) {
+			instructions.add(new TextInstruction(text.toString()));
+			text.setLength(0);
+		}
+	}
+
+	/**
+	 * Test if element has named attribute, case insensitive. Used for compile time marks like <code>data-flush</code>.
+	 *
+	 * @param element template element,
+	 * @param name attribute name.
+	 * @return true if element has named attribute.
+	 */
+	private static boolean hasAttr(Element element, String name) {
+		for (Attr attr : element.getAttrs()) {
+			if (name.equalsIgnoreCase(attr.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Test if element declares at least one operator.
+	 *
+	 * @param element template element.
+	 * @return true if element has operators.
+	 */
+	private static boolean hasOperators(Element element) {
+		for (Attr attr : element.getAttrs()) {
+			if (Opcode.fromAttrName(attr.getName()) != Opcode.NONE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Ensure every attribute is set only once, either by static declaration or by a single attribute operator. Since this
+	 * condition is checked at compile time serializer does not need to detect duplicated attributes.
+	 *
+	 * @param element template element,
+	 * @param operators element operators list,
+	 * @param attributes static attributes written when scope object is not null.
+	 * @throws TemplateException if an attribute is declared both static and by operator or by more than one operator.
+	 */
+	private static void checkAttributeOperators(Element element, OperatorsList operators, List<Attr> attributes) {
+		Set<String> staticNames = new HashSet<>();
+		for (Attr attr : attributes) {
+			staticNames.add(attr.getName());
+		}
+		Set<String> operatorNames = new HashSet<>();
+		for (Meta meta : operators.getAttributeOperatorsMeta()) {
+			for (String name : attributeNames(meta)) {
+				if (staticNames.contains(name)) {
+					throw new TemplateException("Invalid element |%s|. It has both static attribute |%s| and attribute operator.", element, name);
+				}
+				if (!operatorNames.add(name)) {
+					throw new TemplateException("Invalid element |%s|. Attribute |%s| is set by more than one attribute operator.", element, name);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the names of attributes created by an attribute operator.
+	 *
+	 * @param meta attribute operator meta-data.
+	 * @return attribute names.
+	 */
+	private static List<String> attributeNames(Meta meta) {
+		switch (meta.opcode) {
+		case ATTR:
+			List<String> names = new ArrayList<>();
+			for (AttrOperator.AttrExpression attrExpression : meta.attrExpressions) {
+				names.add(attrExpression.attrName);
+			}
+			return names;
+
+		case CSS_CLASS:
+			return Collections.singletonList("class");
+
+		case ID:
+			return Collections.singletonList("id");
+
+		case SRC:
+			return Collections.singletonList("src");
+
+		case HREF:
+			return Collections.singletonList("href");
+
+		case TITLE:
+			return Collections.singletonList("title");
+
+		case VALUE:
+			return Collections.singletonList("value");
+
+		default:
+			throw new BugError("Not an attribute operator |%s|.", meta.opcode);
+		}
+	}
+
+	/**
+	 * Build start tag with given static attributes, including closing mark.
+	 *
+	 * @param tag tag name,
+	 * @param attributes static attributes,
+	 * @param emptyTag true if element is declared without content,
+	 * @param operatorsSerialization true if operators are included into serialized document.
+	 * @return start tag.
+	 */
+	private static String buildStartTag(String tag, Iterable<Attr> attributes, boolean emptyTag, boolean operatorsSerialization) {
+		StringBuilder builder = new StringBuilder();
+		builder.append('<');
+		builder.append(tag);
+		appendAttributes(builder, attributes, operatorsSerialization);
+		builder.append(emptyTag ? " />" : ">");
+		return builder.toString();
+	}
+
+	/**
+	 * Append static attributes to builder, skipping attributes not serialized, see
+	 * {@link Serializer#isSerializable(String, String, boolean)}. Attribute values are escaped.
+	 *
+	 * @param builder string builder,
+	 * @param attributes static attributes,
+	 * @param operatorsSerialization true if operators are included into serialized document.
+	 */
+	private static void appendAttributes(StringBuilder builder, Iterable<Attr> attributes, boolean operatorsSerialization) {
+		for (Attr attr : attributes) {
+			if (Serializer.isSerializable(attr.getName(), attr.getValue(), operatorsSerialization)) {
+				builder.append(' ');
+				builder.append(attr.getName());
+				builder.append("=\"");
+				builder.append(Strings.escapeXML(attr.getValue()));
+				builder.append('"');
+			}
+		}
+	}
+
+	/**
+	 * Compile first child elements as list or map item templates. If element has less child elements than requested returns
+	 * only existing ones; missing templates are reported by operators at execution time.
+	 *
+	 * @param element list or map element,
+	 * @param count maximum number of item templates,
+	 * @param operatorsSerialization true if operators are included into serialized document.
+	 * @return item templates, possible empty.
+	 */
+	private static ElementInstruction[] compileItemTemplates(Element element, int count, boolean operatorsSerialization) {
+		List<ElementInstruction> itemTemplates = new ArrayList<>();
+		Element child = element.getFirstChild();
+		while (child != null && itemTemplates.size() < count) {
+			itemTemplates.add(new ElementInstruction(child, true, operatorsSerialization));
+			child = child.getNextSibling();
+		}
+		return itemTemplates.toArray(new ElementInstruction[itemTemplates.size()]);
+	}
+
+	@Override
+	void exec(Serializer serializer, Object scope) throws IOException {
+		serializer.write(this, scope);
+	}
+
+	/**
+	 * Get case sensitive tag name.
+	 *
+	 * @return tag name.
+	 */
+	String getTag() {
+		return tag;
+	}
+
+	/**
+	 * Test if element is declared without content.
+	 *
+	 * @return true if element is empty.
+	 */
+	boolean isEmptyTag() {
+		return emptyTag;
+	}
+
+	/**
+	 * Get pre-built start tag used when scope object is not null and element has no attribute operators.
+	 *
+	 * @return start tag, including closing mark.
+	 */
+	String getStartTag() {
+		return startTag;
+	}
+
+	/**
+	 * Get pre-built start tag open part used when scope object is not null and element has attribute operators.
+	 *
+	 * @return start tag without closing mark.
+	 */
+	String getOpenStartTag() {
+		return openStartTag;
+	}
+
+	/**
+	 * Get pre-built start tag used when scope object is null.
+	 *
+	 * @return start tag, including closing mark.
+	 */
+	String getNullScopeStartTag() {
+		return nullScopeStartTag;
+	}
+
+	/**
+	 * Get pre-built end tag.
+	 *
+	 * @return end tag.
+	 */
+	String getEndTag() {
+		return endTag;
+	}
+
+	/**
+	 * Test if source DOM element has child elements.
+	 *
+	 * @return true if element has children.
+	 */
+	boolean hasChildren() {
+		return hasChildren;
+	}
+
+	/**
+	 * Get element operators list.
+	 *
+	 * @return operators list.
+	 */
+	OperatorsList getOperators() {
+		return operators;
+	}
+
+	/**
+	 * Get static CSS class names, in source order.
+	 *
+	 * @return static CSS class names, possible empty.
+	 */
+	String[] getCssClassNames() {
+		return cssClassNames;
+	}
+
+	/**
+	 * Get compiled child instructions.
+	 *
+	 * @return child instructions, possible empty.
+	 */
+	Instruction[] getChildren() {
+		return children;
+	}
+
+	/**
+	 * Get item template by index, first child element being at index 0.
+	 *
+	 * @param index item template index.
+	 * @return item template or null if element has not enough child elements.
+	 */
+	ElementInstruction getItemTemplate(int index) {
+		return index < itemTemplates.length ? itemTemplates[index] : null;
+	}
+
+	@Override
+	long weight() {
+		long weight = OBJECT_OVERHEAD * (2 + cssClassNames.length);
+		weight += 2L * (startTag.length() + openStartTag.length() + nullScopeStartTag.length() + endTag.length());
+		for (Instruction child : children) {
+			weight += child.weight();
+		}
+		for (ElementInstruction itemTemplate : itemTemplates) {
+			weight += itemTemplate.weight();
+		}
+		return weight;
+	}
+
+	/**
+	 * Get source element trace, for diagnostic messages.
+	 *
+	 * @return source element trace.
+	 */
+	String trace() {
+		return element.trace();
+	}
+
+	@Override
+	public String toString() {
+		return element.toString();
+	}
+}
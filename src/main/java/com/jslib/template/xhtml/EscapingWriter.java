@@ -0,0 +1,77 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Base class for serializer writers. Writer is able to write static template text, see {@link #writeStatic(String, byte[])},
+ * and to escape XML reserved characters on the fly. Escaping produces the same output as {@link
+ * com.jslib.util.Strings#escapeXML(String)} but does not create an escaped string copy: source string is scanned using a
+ * lookup table, runs of characters that do not need escaping are written as they are and reserved characters are replaced in
+ * place by entity characters.
+ * <p>
+ * Subclasses should implement {@link #write(String, int, int)} and {@link #write(char[], int, int)} without intermediate
+ * copies since escaping delegates them for every clean run and every entity.
+ *
+ * @author Iulian Rotaru
+ */
+abstract class EscapingWriter extends Writer {
+	/** Entity characters indexed by reserved character code, null for characters that do not need escaping. */
+	private static final char[][] ENTITIES = new char[128][];
+	static {
+		ENTITIES['<'] = "&lt;".toCharArray();
+		ENTITIES['>'] = "&gt;".toCharArray();
+		ENTITIES['&'] = "&amp;".toCharArray();
+		ENTITIES['"'] = "&quot;".toCharArray();
+		ENTITIES['\''] = "&apos;".toCharArray();
+	}
+
+	/**
+	 * Get the number of characters, or bytes for byte oriented writers, written since this writer was reset. Includes both
+	 * buffered and already sent output. Used by serializer to flush output progressively, see {@link FlushPolicy}.
+	 *
+	 * @return written output size.
+	 */
+	abstract long size();
+
+	/**
+	 * Write static template text, already escaped at template compile time. Text is provided in both characters and UTF-8
+	 * encoded forms; this default implementation writes characters and byte oriented writers override it to copy bytes.
+	 *
+	 * @param text static text,
+	 * @param utf8 the same static text, UTF-8 encoded.
+	 * @throws IOException if write operation fails.
+	 */
+	void writeStatic(String text, byte[] utf8) throws IOException {
+		write(text, 0, text.length());
+	}
+
+	/**
+	 * Escape XML reserved characters from given text and write it. This method does not allocate.
+	 *
+	 * @param text text to escape, not null.
+	 * @throws IOException if write operation fails.
+	 */
+	void writeEscaped(String text) throws IOException {
+		final int length = text.length();
+		int start = 0;
+		for (int i = 0; i < length; ++i) {
+			char c = text.charAt(i);
+			if (c >= ENTITIES.length) {
+				continue;
+			}
+			char[] entity = ENTITIES[c];
+			if (entity == null) {
+				continue;
+			}
+			if (i > start) {
+				write(text, start, i - start);
+			}
+			write(entity, 0, entity.length);
+			start = i + 1;
+		}
+		if (length > start) {
+			write(text, start, length - start);
+		}
+	}
+}
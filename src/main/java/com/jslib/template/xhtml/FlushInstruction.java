@@ -0,0 +1,50 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+
+/**
+ * Flush point instruction. It is compiled after elements marked with <code>data-flush</code> attribute and after document
+ * head element if head declares operators; if head is static markup, head end tag is found in static text instead, see
+ * {@link TextInstruction}. Serializer flushes its output on this instruction only if template {@link FlushPolicy flush
+ * policy} enables marked elements, respective document head; otherwise this instruction does nothing. Since this
+ * instruction has no state other than its kind, shared instances are used by all programs.
+ *
+ * @author Iulian Rotaru
+ */
+final class FlushInstruction extends Instruction {
+	/** Attribute marking elements after which output is flushed. */
+	static final String ATTR_FLUSH = "data-flush";
+
+	/** Shared flush instruction for elements marked with <code>data-flush</code> attribute. */
+	static final FlushInstruction MARKED = new FlushInstruction(false);
+
+	/** Shared flush instruction for document head end. */
+	static final FlushInstruction HEAD = new FlushInstruction(true);
+
+	/** True if this instruction is compiled after document head, false if after a marked element. */
+	private final boolean head;
+
+	private FlushInstruction(boolean head) {
+		this.head = head;
+	}
+
+	@Override
+	void exec(Serializer serializer, Object scope) throws IOException {
+		if (head) {
+			serializer.flushHead();
+		} else {
+			serializer.flushMarked();
+		}
+	}
+
+	@Override
+	long weight() {
+		// shared instance; only the reference from instructions array is counted
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		return head ? "head" : ATTR_FLUSH;
+	}
+}
@@ -0,0 +1,83 @@
+package com.jslib.template.xhtml;
+
+/**
+ * Progressive flush policy. By default serializer output is buffered and flushed only when serialization completes, so
+ * client gets nothing till the whole document is rendered. Flush policy allows sending document parts while slow content,
+ * e.g. large lists, is still being rendered. Policy is configured per template instance using template properties:
+ * <table border="1" style="border-collapse:collapse;">
+ * <tr>
+ * <td><b>Property
+ * <td><b>Flush
+ * <tr>
+ * <td>js.template.flush.head
+ * <td>after <code>&lt;/head&gt;</code> end tag
+ * <tr>
+ * <td>js.template.flush.marked
+ * <td>after every element marked with <code>data-flush</code> attribute
+ * <tr>
+ * <td>js.template.flush.bytes
+ * <td>when at least given number of bytes, or characters for writers, were written since last flush
+ * <tr>
+ * <td>js.template.flush.items
+ * <td>after every given number of list or map items
+ * </table>
+ * <p>
+ * Size based flush is checked at instruction and item boundaries so actual flushed chunks can be larger than configured
+ * size. Progressive flush makes no sense for string rendering and is ignored there.
+ *
+ * @author Iulian Rotaru
+ */
+final class FlushPolicy {
+	/** Flush after document head end tag. */
+	private boolean head;
+
+	/** Flush after elements marked with <code>data-flush</code> attribute. */
+	private boolean marked;
+
+	/** Flush when written output since last flush reaches this size, zero if disabled. */
+	private long bytes;
+
+	/** Flush every this number of list or map items, zero if disabled. */
+	private int items;
+
+	void setHead(boolean head) {
+		this.head = head;
+	}
+
+	void setMarked(boolean marked) {
+		this.marked = marked;
+	}
+
+	void setBytes(long bytes) {
+		this.bytes = bytes;
+	}
+
+	void setItems(int items) {
+		this.items = items;
+	}
+
+	boolean isHead() {
+		return head;
+	}
+
+	boolean isMarked() {
+		return marked;
+	}
+
+	long getBytes() {
+		return bytes;
+	}
+
+	int getItems() {
+		return items;
+	}
+
+	/**
+	 * Test if at least one flush criterion is enabled.
+	 *
+	 * @return true if policy is enabled.
+	 */
+	boolean isEnabled() {
+		return head || marked || bytes > 0 || items > 0;
+	}
+}
@@ -0,0 +1,34 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+
+/**
+ * Compiled template instruction. Template document is compiled once, at load time, into a tree of instructions, see
+ * {@link Program}. There are two kinds of instructions: {@link TextInstruction static text} that is sent to writer as it is
+ * and {@link ElementInstruction element} that has operators and is processed by serializer generic algorithm.
+ * <p>
+ * Instructions are immutable and reused by all serializations of the same template, possible concurrently.
+ *
+ * @author Iulian Rotaru
+ */
+abstract class Instruction {
+	/** Rough estimate, in bytes, for the memory footprint of an object header plus its references. */
+	static final int OBJECT_OVERHEAD = 32;
+
+	/**
+	 * Execute this instruction in the context of given serializer and object scope.
+	 *
+	 * @param serializer serializer instance,
+	 * @param scope object scope, possible null.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	abstract void exec(Serializer serializer, Object scope) throws IOException;
+
+	/**
+	 * Estimate memory footprint of this instruction, in bytes, including its descendants. Returned value is not accurate; it
+	 * is a weight used to compare templates against each other.
+	 *
+	 * @return estimated instruction size, in bytes.
+	 */
+	abstract long weight();
+}
@@ -0,0 +1,77 @@
+package com.jslib.template.xhtml;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Report for templates preloading, see {@link XhtmlTemplateEngine#preload(java.util.Collection, java.util.concurrent.Executor)}.
+ * Keeps loading time for every successfully loaded template and the exception for every template that fails to load. Both
+ * maps are keyed by template name, that is, template file absolute path.
+ *
+ * @author Iulian Rotaru
+ */
+public final class PreloadReport {
+	/** Loading time, in milliseconds, for successfully loaded templates. */
+	private final Map<String, Long> loadTimes = new ConcurrentHashMap<>();
+
+	/** Loading exceptions for templates that fail to load. */
+	private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+	/** Preloading total time, in milliseconds. */
+	private volatile long totalTime;
+
+	void addLoadTime(String templateName, long loadTime) {
+		loadTimes.put(templateName, loadTime);
+	}
+
+	void addFailure(String templateName, Throwable failure) {
+		failures.put(templateName, failure);
+	}
+
+	void setTotalTime(long totalTime) {
+		this.totalTime = totalTime;
+	}
+
+	/**
+	 * Get loading times, in milliseconds, for successfully loaded templates, mapped by template name.
+	 *
+	 * @return loading times, possible empty.
+	 */
+	public Map<String, Long> getLoadTimes() {
+		return Collections.unmodifiableMap(loadTimes);
+	}
+
+	/**
+	 * Get loading exceptions for templates that fail to load, mapped by template name.
+	 *
+	 * @return loading exceptions, possible empty.
+	 */
+	public Map<String, Throwable> getFailures() {
+		return Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * Test if all templates were successfully loaded.
+	 *
+	 * @return true if there are no loading failures.
+	 */
+	public boolean isSuccess() {
+		return failures.isEmpty();
+	}
+
+	/**
+	 * Get preloading total time, in milliseconds. Since templates are loaded in parallel total time is usually less than the
+	 * sum of templates loading times.
+	 *
+	 * @return preloading total time.
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Preloaded %d templates in %d ms, %d failures.", loadTimes.size(), totalTime, failures.size());
+	}
+}
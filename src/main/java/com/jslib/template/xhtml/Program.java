@@ -0,0 +1,128 @@
+package com.jslib.template.xhtml;
+
+import com.jslib.api.dom.Document;
+import com.jslib.api.dom.Element;
+import com.jslib.api.template.TemplateException;
+
+/**
+ * Template program compiled from a template document. Template document is scanned only once, at load time, and compiled into
+ * a tree of immutable {@link Instruction instructions}: root instructions array holds pre-escaped static text chunks and
+ * template elements with resolved opcodes and prepared operators lists, and every element instruction holds its own child
+ * instructions and item templates. Serializer executes this program and does not touch template DOM anymore.
+ * <p>
+ * Static markup does not depend on model, so render time scales with the number of elements declaring operators and not with
+ * document size.
+ * <p>
+ * Compiled program is thread safe and is cached by {@link XhtmlTemplateEngine}, alongside source document. Program keeps a
+ * moving average of serialized output length used to presize string rendering buffer; average updates are not synchronized
+ * since a lost update only affects the next estimate.
+ *
+ * @author Iulian Rotaru
+ */
+final class Program {
+	/** Source document footprint relative to compiled instructions footprint, used by program weight estimation. */
+	private static final int DOCUMENT_WEIGHT_FACTOR = 4;
+
+	/** Output length estimate, in characters, used before first serialization. */
+	private static final int DEFAULT_OUTPUT_LENGTH = 8192;
+
+	/** Weight of the last output length in moving average, as a power of two divider, that is, 1/8. */
+	private static final int AVERAGE_SHIFT = 3;
+
+	/** Source template document. */
+	private final Document document;
+
+	/** Flag true if operators are included into serialized document. */
+	private final boolean operatorsSerialization;
+
+	/** Compiled root element instructions, empty if source document has no root. */
+	private final Instruction[] instructions;
+
+	/** Estimated retained size, in bytes, for this program and its source document. */
+	private final long weight;
+
+	/** Moving average of serialized output length, in characters, zero if program was not yet serialized to string. */
+	private volatile int averageOutputLength;
+
+	/**
+	 * Compile template document.
+	 *
+	 * @param document template document,
+	 * @param operatorsSerialization true if operators are included into serialized document.
+	 * @throws TemplateException if template document has invalid operators.
+	 */
+	Program(Document document, boolean operatorsSerialization) {
+		this.document = document;
+		this.operatorsSerialization = operatorsSerialization;
+		Element root = document.getRoot();
+		this.instructions = root != null ? ElementInstruction.compile(root, operatorsSerialization) : new Instruction[0];
+
+		long weight = 0;
+		for (Instruction instruction : instructions) {
+			weight += instruction.weight();
+		}
+		// source DOM is retained too and DOM nodes are heavier than compiled instructions
+		this.weight = DOCUMENT_WEIGHT_FACTOR * weight;
+	}
+
+	/**
+	 * Get source template document.
+	 *
+	 * @return source document.
+	 */
+	Document getDocument() {
+		return document;
+	}
+
+	/**
+	 * Test if this program was compiled with operators serialization enabled.
+	 *
+	 * @return true if operators are included into serialized document.
+	 */
+	boolean isOperatorsSerialization() {
+		return operatorsSerialization;
+	}
+
+	/**
+	 * Get compiled root element instructions.
+	 *
+	 * @return root instructions, possible empty.
+	 */
+	Instruction[] getInstructions() {
+		return instructions;
+	}
+
+	/**
+	 * Get estimated retained size for this program, including source document. Returned value is a rough estimate used by
+	 * templates cache to enforce its size budget.
+	 *
+	 * @return estimated retained size, in bytes.
+	 */
+	long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Get estimated output length used to presize string rendering buffer. Estimate is the moving average of past output
+	 * lengths plus some headroom so that usual variations do not trigger buffer growing.
+	 *
+	 * @return estimated output length, in characters.
+	 */
+	int getOutputLengthEstimate() {
+		int average = averageOutputLength;
+		if (average == 0) {
+			return DEFAULT_OUTPUT_LENGTH;
+		}
+		return average + (average >> AVERAGE_SHIFT);
+	}
+
+	/**
+	 * Update output length moving average with the length of a completed serialization.
+	 *
+	 * @param outputLength serialized output length, in characters.
+	 */
+	void updateOutputLength(int outputLength) {
+		int average = averageOutputLength;
+		averageOutputLength = average == 0 ? outputLength : average + ((outputLength - average) >> AVERAGE_SHIFT);
+	}
+}
@@ -0,0 +1,281 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.jslib.api.log.Log;
+import com.jslib.api.log.LogFactory;
+import com.jslib.api.template.TemplateException;
+
+/**
+ * Cache for compiled template programs, mapped by template name. Cache is safe for concurrent access. A template is loaded by
+ * a single thread; concurrent requests for the same template wait for that thread to complete loading. Once loaded, cache hits
+ * do not acquire any lock.
+ * <p>
+ * Cache is unbounded by default. It can be bounded by maximum entries count and / or by total weight, that is, the estimated
+ * retained size of cached programs, see {@link Program#getWeight()}. When a bound is exceeded least recently used programs are
+ * evicted; an evicted program is loaded again on next request.
+ * <p>
+ * Recency is approximate: access stamps are ticks of a logical clock that advances only when a program is loaded, not wall
+ * clock time. A cache hit writes entry stamp only if entry was not already used since last load, so that in steady state
+ * hits on hot templates only read shared memory and scale without contention. Templates used between the same two loads
+ * are equally recent for eviction.
+ *
+ * @author Iulian Rotaru
+ */
+final class ProgramCache {
+	/** Class logger. */
+	private static final Log log = LogFactory.getLog(ProgramCache.class);
+
+	/** Cache entries mapped by template name. */
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/** Total weight of loaded programs. */
+	private final AtomicLong totalWeight = new AtomicLong();
+
+	/** Logical clock for entries access stamps, advanced on every program load. */
+	private final AtomicLong clock = new AtomicLong();
+
+	/** Maximum number of cache entries, default to unbounded. */
+	private volatile int maxEntries = Integer.MAX_VALUE;
+
+	/** Maximum total weight, in bytes, for cached programs, default to unbounded. */
+	private volatile long maxWeight = Long.MAX_VALUE;
+
+	/**
+	 * Set maximum number of cache entries and evict least recently used programs if cache is already larger.
+	 *
+	 * @param maxEntries maximum number of entries.
+	 * @throws IllegalArgumentException if maximum entries is not strictly positive.
+	 */
+	void setMaxEntries(int maxEntries) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("Maximum entries should be positive.");
+		}
+		this.maxEntries = maxEntries;
+		evict();
+	}
+
+	/**
+	 * Set maximum total weight for cached programs and evict least recently used programs if budget is already exceeded.
+	 *
+	 * @param maxWeight maximum total weight, in bytes.
+	 * @throws IllegalArgumentException if maximum weight is not strictly positive.
+	 */
+	void setMaxWeight(long maxWeight) {
+		if (maxWeight <= 0) {
+			throw new IllegalArgumentException("Maximum weight should be positive.");
+		}
+		this.maxWeight = maxWeight;
+		evict();
+	}
+
+	/**
+	 * Get cached program or load it using given loader, if template is not already cached. Loader is executed by current
+	 * thread and only if no other thread is already loading the same template; otherwise current thread waits for loading
+	 * completion. If loading fails template is not cached and loader exception is rethrown unchanged.
+	 *
+	 * @param templateName template name,
+	 * @param loader template program loader.
+	 * @return template program.
+	 * @throws IOException if template loading fails on read operation.
+	 * @throws TemplateException if template document is not valid.
+	 */
+	Program get(String templateName, Callable<Program> loader) throws IOException {
+		Entry entry = entries.get(templateName);
+		if (entry == null) {
+			Entry newEntry = new Entry(loader);
+			entry = entries.putIfAbsent(templateName, newEntry);
+			if (entry == null) {
+				// current thread won the race and is in charge with template loading; loading stamps entry access
+				load(templateName, newEntry);
+				return newEntry.getProgram(templateName);
+			}
+		}
+		long now = clock.get();
+		if (entry.accessTime != now) {
+			// write shared entry stamp at most once per clock tick
+			entry.accessTime = now;
+		}
+		return entry.getProgram(templateName);
+	}
+
+	/**
+	 * Get the number of cache entries, including templates in process of loading.
+	 *
+	 * @return cache entries count.
+	 */
+	int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Get total weight of loaded programs.
+	 *
+	 * @return total weight, in bytes.
+	 */
+	long weight() {
+		return totalWeight.get();
+	}
+
+	/**
+	 * Execute entry loader and account loaded program weight. If loading fails remove entry from cache so that next request
+	 * retries loading.
+	 *
+	 * @param templateName template name,
+	 * @param entry cache entry.
+	 */
+	private void load(String templateName, Entry entry) {
+		entry.task.run();
+		Program program = entry.getProgramNow();
+		if (program == null) {
+			entries.remove(templateName, entry);
+			return;
+		}
+		entry.weight = program.getWeight();
+		// just loaded program is the most recently used one and should not be the first eviction candidate
+		// clock advances after stamping so that hits on other entries from now on are more recent than this load
+		entry.accessTime = clock.getAndIncrement();
+		account(templateName, entry);
+		evict();
+	}
+
+	/**
+	 * Account loaded program weight, but only if entry was not removed from cache while loading.
+	 *
+	 * @param templateName template name,
+	 * @param entry cache entry with program loaded.
+	 */
+	private synchronized void account(String templateName, Entry entry) {
+		if (entries.get(templateName) == entry) {
+			totalWeight.addAndGet(entry.weight);
+			entry.loaded = true;
+		}
+	}
+
+	/**
+	 * Remove template from cache. Template is loaded again on next request. If template is in process of loading, threads
+	 * already waiting for it still get loaded program.
+	 *
+	 * @param templateName template name.
+	 * @return true if template was cached.
+	 */
+	synchronized boolean remove(String templateName) {
+		Entry entry = entries.remove(templateName);
+		if (entry == null) {
+			return false;
+		}
+		if (entry.loaded) {
+			totalWeight.addAndGet(-entry.weight);
+		}
+		return true;
+	}
+
+	/** Remove all templates from cache. */
+	synchronized void clear() {
+		for (String templateName : entries.keySet()) {
+			remove(templateName);
+		}
+	}
+
+	/**
+	 * Evict least recently used programs while cache bounds are exceeded. Only loaded programs are considered. Entries weight
+	 * accounting is synchronized with this method.
+	 * <p>
+	 * Every evicted program costs a full scan of cache entries, under this cache lock, so eviction is O(n) per victim. It is
+	 * performed only after a template is loaded, never on cache hits, and a scan of thousands entries is small compared with
+	 * the template parsing that precedes it. Concurrent cache hits are not blocked; only loads and removals wait.
+	 */
+	private synchronized void evict() {
+		while (entries.size() > maxEntries || totalWeight.get() > maxWeight) {
+			Map.Entry<String, Entry> victim = null;
+			for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+				if (!entry.getValue().loaded) {
+					continue;
+				}
+				if (victim == null || entry.getValue().accessTime < victim.getValue().accessTime) {
+					victim = entry;
+				}
+			}
+			if (victim == null) {
+				break;
+			}
+			if (entries.remove(victim.getKey(), victim.getValue())) {
+				totalWeight.addAndGet(-victim.getValue().weight);
+				log.debug("Evict template |{template_name}| from cache.", victim.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Cache entry. Holds the future result of template loading and bookkeeping data used by eviction.
+	 *
+	 * @author Iulian Rotaru
+	 */
+	private static final class Entry {
+		/** Template loading task, executed only once. */
+		final FutureTask<Program> task;
+
+		/** Last access stamp, as cache logical clock tick; updated on cache hit only if clock advanced since last hit. */
+		volatile long accessTime;
+
+		/** Loaded program weight, meaningful only after program is loaded. */
+		volatile long weight;
+
+		/** Flag true after program is loaded and its weight accounted. */
+		volatile boolean loaded;
+
+		Entry(Callable<Program> loader) {
+			this.task = new FutureTask<>(loader);
+		}
+
+		/**
+		 * Get loaded program, null if loading failed. This getter is called only after loading task completion.
+		 *
+		 * @return loaded program or null.
+		 */
+		Program getProgramNow() {
+			try {
+				return task.get();
+			} catch (InterruptedException | ExecutionException e) {
+				return null;
+			}
+		}
+
+		/**
+		 * Wait for template loading to complete and return compiled program. If template is already loaded this method does
+		 * not block.
+		 *
+		 * @param templateName template name, for error reporting.
+		 * @return compiled program.
+		 * @throws IOException if template loading fails on read operation.
+		 * @throws TemplateException if template document is not valid.
+		 */
+		Program getProgram(String templateName) throws IOException {
+			try {
+				return task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(String.format("Interrupted while waiting for template |%s| loading.", templateName));
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new TemplateException("Fail to load template |%s|. Root cause: %s", templateName, cause);
+			}
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.jslib.template.xhtml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jslib.api.template.TemplateException;
+
+/**
+ * Parsed property path. Property path is a list of property names separated by dots and can be absolute, when starts with
+ * dot, or relative; anonymous property path, that is exactly ".", designates scope object itself. See {@link Content} class
+ * description for property path syntax.
+ * <p>
+ * Property path is parsed once, when template is compiled, and reused by all serializations. Numeric properties, used as
+ * array or list indexes, are parsed too so that content value lookup does not need to perform any string processing.
+ * Property path instance is immutable and thread safe.
+ *
+ * @author Iulian Rotaru
+ */
+final class PropertyPath {
+	/** Index value for properties that are not numeric. */
+	static final int NOT_INDEX = Integer.MIN_VALUE;
+
+	/** Source property path. */
+	private final String path;
+
+	/** True if property path is anonymous, that is, exactly ".". */
+	private final boolean anonymous;
+
+	/** True if property path is absolute, that is, starts with dot. */
+	private final boolean absolute;
+
+	/** Property names, in path order. Empty array for anonymous property path. */
+	private final String[] properties;
+
+	/** Parsed numeric indexes, in path order, or {@link #NOT_INDEX} if related property name is not numeric. */
+	private final int[] indexes;
+
+	/**
+	 * Parse property path.
+	 *
+	 * @param path source property path, not empty.
+	 * @throws TemplateException if property path is empty.
+	 */
+	PropertyPath(String path) {
+		if (path.isEmpty()) {
+			throw new TemplateException("Invalid operand. Empty property path.");
+		}
+		this.path = path;
+		this.anonymous = path.equals(".");
+		this.absolute = !anonymous && path.charAt(0) == '.';
+
+		// mimic String#split semantic: trailing empty properties are ignored
+		List<String> properties = new ArrayList<>();
+		if (!anonymous) {
+			int start = absolute ? 1 : 0;
+			for (int end = path.indexOf('.', start); end != -1; end = path.indexOf('.', start)) {
+				properties.add(path.substring(start, end));
+				start = end + 1;
+			}
+			properties.add(path.substring(start));
+			while (!properties.isEmpty() && properties.get(properties.size() - 1).isEmpty()) {
+				properties.remove(properties.size() - 1);
+			}
+		}
+		this.properties = properties.toArray(new String[properties.size()]);
+
+		this.indexes = new int[this.properties.length];
+		for (int i = 0; i < this.properties.length; ++i) {
+			this.indexes[i] = parseIndex(this.properties[i]);
+		}
+	}
+
+	/**
+	 * Parse numeric index.
+	 *
+	 * @param property property name.
+	 * @return index value or {@link #NOT_INDEX} if property name is not numeric.
+	 */
+	private static int parseIndex(String property) {
+		try {
+			return Integer.parseInt(property);
+		} catch (NumberFormatException unused) {
+			return NOT_INDEX;
+		}
+	}
+
+	/**
+	 * Test if property path is anonymous, that is, designates scope object itself.
+	 *
+	 * @return true if property path is exactly ".".
+	 */
+	boolean isAnonymous() {
+		return anonymous;
+	}
+
+	/**
+	 * Test if property path is absolute, that is, relative to content model and not to scope object.
+	 *
+	 * @return true if property path starts with dot.
+	 */
+	boolean isAbsolute() {
+		return absolute;
+	}
+
+	/**
+	 * Get the number of properties from this property path.
+	 *
+	 * @return properties count, zero if property path is anonymous.
+	 */
+	int size() {
+		return properties.length;
+	}
+
+	/**
+	 * Get property name.
+	 *
+	 * @param position property position in path.
+	 * @return property name.
+	 */
+	String getProperty(int position) {
+		return properties[position];
+	}
+
+	/**
+	 * Get property parsed numeric index.
+	 *
+	 * @param position property position in path.
+	 * @return property index or {@link #NOT_INDEX} if property name is not numeric.
+	 */
+	int getIndex(int position) {
+		return indexes[position];
+	}
+
+	@Override
+	public String toString() {
+		return path;
+	}
+}
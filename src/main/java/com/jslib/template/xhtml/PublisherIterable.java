@@ -0,0 +1,184 @@
+package com.jslib.template.xhtml;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.jslib.api.template.TemplateException;
+
+/**
+ * Adapter for reactive publisher to blocking iterable, used by list and map operators to render items as publisher emits
+ * them. Serializer thread pulls items one at a time and blocks while publisher has no item ready; serializer flushes output
+ * before blocking, see {@link #isReady()}, so that items already rendered reach the client while next ones are fetched.
+ * <p>
+ * Items are requested with back pressure, in batches: {@link #BATCH_SIZE} items are requested on subscribe and half batch
+ * more every time half batch is consumed, so at most one batch is buffered. Publisher is subscribed on iteration start and
+ * subscription is cancelled if serializer stops iteration before publisher completes, see {@link #cancel()}.
+ * <p>
+ * Publisher can be iterated only once. Publisher error is rethrown as template exception on serializer thread.
+ *
+ * @author Iulian Rotaru
+ */
+final class PublisherIterable<T> implements Iterable<T>, Iterator<T>, Flow.Subscriber<T> {
+	/** Number of items requested from publisher in advance. */
+	private static final int BATCH_SIZE = 64;
+
+	/** Queue marker for publisher completion. */
+	private static final Object COMPLETE = new Object();
+
+	/** Source publisher. */
+	private final Flow.Publisher<? extends T> publisher;
+
+	/** Items emitted by publisher but not yet consumed, followed by completion marker or error, if publisher terminated. */
+	private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+
+	/** Publisher subscription, set on subscribe. */
+	private volatile Flow.Subscription subscription;
+
+	/** True after iteration start. */
+	private boolean subscribed;
+
+	/** Next item already taken from queue, null if none. Publisher never emits null items. */
+	private Object next;
+
+	/** True if publisher terminated and all its items were consumed. */
+	private boolean done;
+
+	/** Items consumed since last request. */
+	private int consumed;
+
+	/**
+	 * Construct iterable for given publisher. Publisher is not subscribed till iteration starts.
+	 *
+	 * @param publisher source publisher.
+	 */
+	PublisherIterable(Flow.Publisher<? extends T> publisher) {
+		this.publisher = publisher;
+	}
+
+	/**
+	 * Subscribe to publisher and return this instance as iterator.
+	 *
+	 * @return this instance.
+	 * @throws TemplateException if publisher is iterated second time.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		if (subscribed) {
+			throw new TemplateException("Publisher list source can be iterated only once.");
+		}
+		subscribed = true;
+		publisher.subscribe(this);
+		return this;
+	}
+
+	/**
+	 * Test if next item or publisher termination is available without blocking.
+	 *
+	 * @return true if {@link #hasNext()} does not block.
+	 */
+	boolean isReady() {
+		return next != null || done || !queue.isEmpty();
+	}
+
+	/**
+	 * Wait for publisher next item or termination.
+	 *
+	 * @return true if publisher emitted next item, false if publisher completed.
+	 * @throws TemplateException if publisher terminates with error or serializer thread is interrupted while waiting.
+	 */
+	@Override
+	public boolean hasNext() {
+		if (next != null) {
+			return true;
+		}
+		if (done) {
+			return false;
+		}
+
+		Object item;
+		try {
+			item = queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancel();
+			throw new TemplateException(e);
+		}
+		if (item == COMPLETE) {
+			done = true;
+			return false;
+		}
+		if (item instanceof Failure) {
+			done = true;
+			throw new TemplateException(((Failure) item).error);
+		}
+
+		next = item;
+		if (++consumed == BATCH_SIZE / 2) {
+			consumed = 0;
+			subscription.request(BATCH_SIZE / 2);
+		}
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Object item = next;
+		next = null;
+		return (T) item;
+	}
+
+	/** Cancel publisher subscription if publisher is not yet terminated. Safe to call multiple times. */
+	void cancel() {
+		if (!done && subscription != null) {
+			done = true;
+			subscription.cancel();
+		}
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		if (this.subscription != null) {
+			// reactive streams rule: a subscriber must cancel any subscription other than the active one
+			subscription.cancel();
+			return;
+		}
+		this.subscription = subscription;
+		subscription.request(BATCH_SIZE);
+	}
+
+	@Override
+	public void onNext(T item) {
+		queue.add(item);
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		queue.add(new Failure(throwable));
+	}
+
+	@Override
+	public void onComplete() {
+		queue.add(COMPLETE);
+	}
+
+	/**
+	 * Queue marker for publisher error.
+	 *
+	 * @author Iulian Rotaru
+	 */
+	private static final class Failure {
+		/** Publisher error. */
+		final Throwable error;
+
+		Failure(Throwable error) {
+			this.error = error;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+
+/**
+ * Time sliced template serialization. Render task executes template serialization in bounded slices of steps, see
+ * {@link #run(int)}; between slices task holds serialization state and does not use any thread, so that many long renders
+ * can share a small executor with cooperative scheduling. A step is a small, bounded unit of work, e.g. writing static text,
+ * opening an element or starting a list item.
+ *
+ * <pre>
+ * RenderTask task = template.render(model, writer);
+ * while (!task.run(1000)) {
+ *   // yield to other tasks, e.g. resubmit task continuation to a shared executor
+ * }
+ * </pre>
+ * <p>
+ * Render task is not thread safe; it can be resumed from different threads but not concurrently. Serializer resources are
+ * released when task completes, fails or is {@link #cancel() cancelled}; a task that is neither completed nor cancelled
+ * keeps its resources.
+ *
+ * @author Iulian Rotaru
+ */
+public final class RenderTask {
+	/** Serializer owned by this task, null after task completion. */
+	private Serializer serializer;
+
+	/** Paused traversal, null if template document was already written at task creation. */
+	private final Traversal traversal;
+
+	/**
+	 * Create render task for a serializer with output set and prepared traversal.
+	 *
+	 * @param serializer serializer acquired from pool,
+	 * @param traversal paused traversal, null if template document is already written.
+	 */
+	RenderTask(Serializer serializer, Traversal traversal) {
+		this.serializer = serializer;
+		this.traversal = traversal;
+	}
+
+	/**
+	 * Execute at most given number of steps and return true if serialization is completed. On completion, deferred fragments
+	 * are written, output is flushed and serializer is released. If serialization fails task is completed and exception is
+	 * propagated.
+	 *
+	 * @param steps maximum number of steps to execute, positive.
+	 * @return true if serialization is completed.
+	 * @throws IllegalArgumentException if steps is not positive.
+	 * @throws IOException if output write operation fails.
+	 */
+	public boolean run(int steps) throws IOException {
+		if (steps <= 0) {
+			throw new IllegalArgumentException("Invalid steps count. Should be positive.");
+		}
+		if (serializer == null) {
+			return true;
+		}
+		try {
+			if (traversal != null && !traversal.run(steps)) {
+				return false;
+			}
+			if (traversal != null) {
+				serializer.writeDeferred();
+			}
+			serializer.flush();
+		} catch (Throwable t) {
+			release();
+			throw t;
+		}
+		release();
+		return true;
+	}
+
+	/**
+	 * Test if this task is completed, either normally, on failure or cancelled.
+	 *
+	 * @return true if task is completed.
+	 */
+	public boolean isDone() {
+		return serializer == null;
+	}
+
+	/**
+	 * Cancel this task and release its resources; reactive list sources, if any, are cancelled too. Output written so far is
+	 * not flushed. Does nothing if task is done.
+	 */
+	public void cancel() {
+		if (serializer != null) {
+			if (traversal != null) {
+				traversal.abort();
+			}
+			release();
+		}
+	}
+
+	/** Release serializer to pool and mark task done. */
+	private void release() {
+		serializer.release();
+		serializer = null;
+	}
+}
@@ -0,0 +1,117 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Buffered writer that can be reused for many serializations. Unlike {@link java.io.BufferedWriter} this writer is not
+ * synchronized and its buffer is allocated once, when writer instance is created; for a new serialization just
+ * {@link #reset(Writer) reset} target writer.
+ * <p>
+ * Escaped text, see {@link #writeEscaped(String)}, goes straight into this writer buffer.
+ * <p>
+ * This writer is not thread safe; it is owned by a {@link Serializer} instance and used by a single thread at a time.
+ *
+ * @author Iulian Rotaru
+ */
+final class ReusableBufferedWriter extends EscapingWriter {
+	/** Default buffer size, in characters. */
+	private static final int BUFFER_SIZE = 8192;
+
+	/** Characters buffer. */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	/** Target writer, null if this writer is not in use. */
+	private Writer out;
+
+	/** Number of characters in buffer. */
+	private int count;
+
+	/** Number of characters already sent to target writer. */
+	private long flushed;
+
+	/**
+	 * Prepare this writer for a new serialization. Discard buffered characters, if any, and set target writer.
+	 *
+	 * @param out target writer, null to release current target writer.
+	 */
+	void reset(Writer out) {
+		this.out = out;
+		this.count = 0;
+		this.flushed = 0;
+	}
+
+	@Override
+	long size() {
+		return flushed + count;
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (count == buffer.length) {
+			flushBuffer();
+		}
+		buffer[count++] = (char) c;
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		if (len >= buffer.length) {
+			// large chunk does not fit buffer; write it directly
+			flushBuffer();
+			out.write(cbuf, off, len);
+			flushed += len;
+			return;
+		}
+		if (len > buffer.length - count) {
+			flushBuffer();
+		}
+		System.arraycopy(cbuf, off, buffer, count, len);
+		count += len;
+	}
+
+	@Override
+	public void write(String str) throws IOException {
+		write(str, 0, str.length());
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		while (len > 0) {
+			if (count == buffer.length) {
+				flushBuffer();
+			}
+			int chunk = Math.min(buffer.length - count, len);
+			str.getChars(off, off + chunk, buffer, count);
+			count += chunk;
+			off += chunk;
+			len -= chunk;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	/**
+	 * Does nothing since target writer is owned by serializer caller. This writer is never closed and can be reused.
+	 */
+	@Override
+	public void close() {
+	}
+
+	/**
+	 * Send buffered characters to target writer.
+	 *
+	 * @throws IOException if target writer fails to write.
+	 */
+	private void flushBuffer() throws IOException {
+		if (count > 0) {
+			out.write(buffer, 0, count);
+			flushed += count;
+			count = 0;
+		}
+	}
+}
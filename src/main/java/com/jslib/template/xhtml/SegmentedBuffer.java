@@ -0,0 +1,165 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Output buffer storing serialized template as a list of fixed size byte segments. Useful when serialized document length,
+ * e.g. for <code>Content-Length</code> header, or its digest, e.g. for <code>ETag</code> header, is needed before sending
+ * the document. Segments are never consolidated: document length is known from {@link #size()} and segments are written
+ * to target by {@link #writeTo(OutputStream)} or, with a single gathering write, by {@link #writeTo(GatheringByteChannel)}.
+ *
+ * <pre>
+ * try (SegmentedBuffer buffer = new SegmentedBuffer()) {
+ *   template.serialize(model, buffer);
+ *   response.setContentLengthLong(buffer.size());
+ *   buffer.writeTo(response.getOutputStream());
+ * }
+ * </pre>
+ * <p>
+ * Segments are taken from a global pool and returned to it on {@link #close()}; after closing, buffer is empty and can be
+ * reused. This class is not thread safe.
+ *
+ * @author Iulian Rotaru
+ */
+public final class SegmentedBuffer extends OutputStream {
+	/** Segment size, in bytes. */
+	private static final int SEGMENT_SIZE = 16384;
+
+	/** Maximum number of idle segments kept by pool. */
+	private static final int POOL_CAPACITY = 256;
+
+	/** Idle segments pool. */
+	private static final Queue<byte[]> pool = new ConcurrentLinkedQueue<>();
+
+	/** Idle segments count; tracked separately since concurrent queue size is not constant time. */
+	private static final AtomicInteger poolSize = new AtomicInteger();
+
+	/** Segments in use, in document order. Only the last segment can be partially filled. */
+	private final List<byte[]> segments = new ArrayList<>();
+
+	/** Number of bytes in the last segment. */
+	private int count = SEGMENT_SIZE;
+
+	/** Total number of bytes stored by this buffer. */
+	private long size;
+
+	@Override
+	public void write(int b) {
+		if (count == SEGMENT_SIZE) {
+			addSegment();
+		}
+		segments.get(segments.size() - 1)[count++] = (byte) b;
+		++size;
+	}
+
+	@Override
+	public void write(byte[] bytes, int off, int len) {
+		while (len > 0) {
+			if (count == SEGMENT_SIZE) {
+				addSegment();
+			}
+			int chunk = Math.min(SEGMENT_SIZE - count, len);
+			System.arraycopy(bytes, off, segments.get(segments.size() - 1), count, chunk);
+			count += chunk;
+			size += chunk;
+			off += chunk;
+			len -= chunk;
+		}
+	}
+
+	/**
+	 * Get the number of bytes stored by this buffer.
+	 *
+	 * @return buffer size, in bytes.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Write buffer segments to output stream, in document order. Buffer content is not changed.
+	 *
+	 * @param stream target output stream.
+	 * @throws IOException if output stream write fails.
+	 */
+	public void writeTo(OutputStream stream) throws IOException {
+		for (int i = 0; i < segments.size(); ++i) {
+			stream.write(segments.get(i), 0, length(i));
+		}
+	}
+
+	/**
+	 * Write buffer segments to gathering byte channel, using a single gathering write call for all segments if channel
+	 * accepts all bytes. Buffer content is not changed.
+	 *
+	 * @param channel target gathering byte channel.
+	 * @throws IOException if byte channel write fails.
+	 */
+	public void writeTo(GatheringByteChannel channel) throws IOException {
+		ByteBuffer[] buffers = new ByteBuffer[segments.size()];
+		for (int i = 0; i < buffers.length; ++i) {
+			buffers[i] = ByteBuffer.wrap(segments.get(i), 0, length(i));
+		}
+		long remaining = size;
+		while (remaining > 0) {
+			remaining -= channel.write(buffers);
+		}
+	}
+
+	/**
+	 * Update message digest with buffer content, e.g. to compute an <code>ETag</code>. Buffer content is not changed.
+	 *
+	 * @param digest message digest to update.
+	 */
+	public void updateDigest(MessageDigest digest) {
+		for (int i = 0; i < segments.size(); ++i) {
+			digest.update(segments.get(i), 0, length(i));
+		}
+	}
+
+	/** Return segments to pool and empty this buffer. Buffer can be reused after closing. */
+	@Override
+	public void close() {
+		for (byte[] segment : segments) {
+			if (poolSize.incrementAndGet() <= POOL_CAPACITY) {
+				pool.offer(segment);
+			} else {
+				poolSize.decrementAndGet();
+			}
+		}
+		segments.clear();
+		count = SEGMENT_SIZE;
+		size = 0;
+	}
+
+	/**
+	 * Get the number of bytes stored by a segment.
+	 *
+	 * @param index segment index.
+	 * @return segment length.
+	 */
+	private int length(int index) {
+		return index == segments.size() - 1 ? count : SEGMENT_SIZE;
+	}
+
+	/** Append a segment taken from pool or a new one if pool is empty. */
+	private void addSegment() {
+		byte[] segment = pool.poll();
+		if (segment == null) {
+			segment = new byte[SEGMENT_SIZE];
+		} else {
+			poolSize.decrementAndGet();
+		}
+		segments.add(segment);
+		count = 0;
+	}
+}
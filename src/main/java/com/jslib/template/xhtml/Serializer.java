@@ -1,425 +1,1107 @@
-package com.jslib.template.xhtml;
-
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.Writer;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.Stack;
-
-import com.jslib.api.dom.Attr;
-import com.jslib.api.dom.ChildNode;
-import com.jslib.api.dom.Element;
-import com.jslib.api.log.Log;
-import com.jslib.api.log.LogFactory;
-import com.jslib.api.template.TemplateException;
-import com.jslib.format.Format;
-import com.jslib.template.xhtml.OperatorsList.Meta;
-import com.jslib.util.Strings;
-
-/**
- * Templates serializer. This class serialize template document and execute operators on the fly. Its classic use case is HTML
- * pages serialization on HTTP response writer, but for no means limited to this. This class has specialized writing methods for
- * elements start, end tag, attributes and text content. Serialization process is started externally by a call to
- * {@link Serializer#write(Element, Object)} method with a given element and traverse recursively the element all its
- * descendants, using depth-first algorithm.
- * 
- * @author Iulian Rotaru
- */
-final class Serializer {
-	/** Class logger. */
-	private static final Log log = LogFactory.getLog(Serializer.class);
-
-	/** This serializer writer. */
-	private Writer writer;
-
-	/** Operator factory. */
-	private OperatorFactory factory;
-
-	/**
-	 * Indexes stack for ordered lists. Every ordered list has its own index instance and in order to cope with nested lists we
-	 * used this stack. For the same reason, although indexes are used only by {@link ListOperator}, indexes stack is global per
-	 * serializer instance.
-	 */
-	private Stack<Index> indexes = new Stack<Index>();
-
-	/**
-	 * By default operators are not serialized on resulting document. Forcing this flag to true will determine serializer to
-	 * include operators, useful for data extraction.
-	 */
-	private boolean enableOperatorsSerialization;
-
-	/**
-	 * Set this serializer writer.
-	 * 
-	 * @param writer resulting document goes on this writer.
-	 */
-	void setWriter(Writer writer) {
-		this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
-	}
-
-	/**
-	 * Set this serializer content. Content instance is not used by this class but is passed to operators factory, which is
-	 * created by this method.
-	 * 
-	 * @param content dynamic content to inject.
-	 */
-	void setContent(Content content) {
-		factory = new OperatorFactory(this, content);
-	}
-
-	/**
-	 * Disable operators serialization. By default, operators are included into resulting document. If document is validated
-	 * operators syntax may collide with document grammar and render document invalid; or perhaps author just prefer to hide
-	 * implementation details. In all cases uses this method to disable operators serialization.
-	 */
-	void enableOperatorsSerialization() {
-		enableOperatorsSerialization = true;
-	}
-
-	/**
-	 * Get indexes stack.
-	 * 
-	 * @return indexes stack.
-	 */
-	Stack<Index> getIndexes() {
-		return indexes;
-	}
-
-	/**
-	 * Write recursively the element and its children. It is both serialization entry point and recursive loop; prepares
-	 * element's operators list and delegates {@link #write(Element, Object, OperatorsList)} for real work.
-	 * 
-	 * @param element element to serialize,
-	 * @param scope object scope.
-	 * @throws TemplateException if underlying writer fails to write.
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	void write(Element element, Object scope) throws IOException {
-		OperatorsList operators = new OperatorsList(element);
-		write(element, scope, operators);
-	}
-
-	/**
-	 * Write list or map item. List and map operators invoke this method to process every item; it prepare element's operators
-	 * list and delegates {@link #write(Element, Object, OperatorsList)} for real work.
-	 * 
-	 * @param element element to serialize,
-	 * @param scope object scope.
-	 * @throws TemplateException if underlying writer fails to write.
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	void writeItem(Element element, Object scope) throws IOException {
-		OperatorsList operators = new OperatorsList(element, true);
-		write(element, scope, operators);
-	}
-
-	/**
-	 * Escape XML reserved chars and write as element text content. Used by text and numbering operators to actually write the
-	 * element text content. At the moment this method is invoked templates engine was already wrote start tag, including
-	 * closing tag mark, e.g. <em>&lt;div attrs... &gt;</em>.
-	 * 
-	 * @param text element text content.
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	void writeTextContent(String text) throws IOException {
-		writer.write((String) Strings.escapeXML(text));
-	}
-
-	/**
-	 * Write HTML content as it is, that is, no XML escape performed. Used by HTML operator to actually write the element inner
-	 * HTML.
-	 * 
-	 * @param html HTML content.
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	void writeHtmlContent(String html) throws IOException {
-		writer.write(html);
-	}
-
-	/**
-	 * Format and send attribute name and value to underlying writer. Used by attribute operators to actually write formatted
-	 * attribute to underlying writer. When attribute operators are executed templates engine was already sent to writer the
-	 * element opening tag mark and tag name, e.g. <em>&lt;div</em>. Formatted attribute is prefixed with space followed by
-	 * name, equals sign and value between double quotes, see below BNF.
-	 * 
-	 * <pre>
-	 *    attribute := ' ' name '=' '"' value '"'
-	 * </pre>
-	 * 
-	 * @param name attribute name,
-	 * @param value attribute value.
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	void writeAttribute(String name, String value) throws IOException {
-		writer.write(' ');
-		writer.write(name);
-		writer.write('=');
-		writer.write('"');
-		writer.write(Strings.escapeXML(value));
-		writer.write('"');
-	}
-
-	/**
-	 * Write string to underlying writer.
-	 * 
-	 * @param string string to send to underlying writer.
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	void write(String string) throws IOException {
-		writer.write(string);
-	}
-
-	/**
-	 * Flush underlying writer.
-	 * 
-	 * @throws IOException if underlying writer fails to flush.
-	 */
-	void flush() throws IOException {
-		writer.flush();
-	}
-
-	/**
-	 * Helper method for element serialization. This method is serializer workhorse; it implements templates generic algorithm
-	 * as shown below. Takes care to write given element with all its components: start, end tag, attributes and perhaps text
-	 * content; if element has children, process them recursively.
-	 * <ul>
-	 * <li>if conditional operator exists, return from this method if operator execution returns false,
-	 * <li>if inline operator, execute it and return from this method,
-	 * <li>write element start tag and attributes,
-	 * <li>extract format instance, if one is declared,
-	 * <li>executes all attribute operators,
-	 * <li>if element is empty close element tag and return from this method,
-	 * <li>execute content operator, if any and return from this method if content processed completely,
-	 * <li>traverse all children recursively.
-	 * </ul>
-	 * Note that described algorithm is dubbed <em>generic</em> because it operates on operator types, not on concrete one. This
-	 * way, one can add new operators without changing this algorithm.
-	 * 
-	 * @param element element to serialize,
-	 * @param scope scope object,
-	 * @param operators prepared operators list.
-	 * @throws TemplateException if scope is null or this algorithm is not able to end properly.
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	@SuppressWarnings("unchecked")
-	private void write(Element element, Object scope, OperatorsList operators) throws IOException {
-		// do not process conditional operators on null scope
-		if (scope != null && operators.hasConditionalOperator()) {
-			Object returnedValue = execOperator(element, scope, operators.getConditionalOperatorMeta());
-			if (returnedValue == null) {
-				// conditional operators always returns boolean
-				// anyway, if exception occurs operator super class returns null
-				// this include content exception that can be generated when value is missing
-				// in any case we consider condition not fulfilled and break this document branch processing
-				return;
-			}
-			assert returnedValue instanceof Boolean;
-			boolean branchEnabled = (Boolean) returnedValue;
-			if (!branchEnabled) {
-				log.debug("Element |{dom_element}| rejected by conditional operator.", element);
-				return;
-			}
-		}
-
-		// do not process formatter on null scope
-		Format format = null;
-		if (scope != null && operators.hasFormattingOperator()) {
-			format = execOperator(element, scope, operators.getFormattingOperatorMeta());
-		}
-
-		String tag = element.getCaseSensitiveTag();
-		writeOpenTag(tag);
-
-		// if scope is null set includeCssClass parameter to true
-		Set<Attr> attributes = collectAttributes(element, scope == null);
-		// on null scope just write element attributes as they are
-		if (scope != null) {
-			for (Meta meta : operators.getAttributeOperatorsMeta()) {
-				Object value = execOperator(element, scope, meta, format);
-				// value returned by attribute operator execution can be null, instance of js.dom.Attr or Java Set
-
-				if (value == null) {
-					// null means executed attribute operator has nothing to serialize
-					continue;
-				}
-				if (value instanceof Attr) {
-					addAttribute(element, attributes, value);
-					continue;
-				}
-				assert value instanceof Set;
-				// Set.addAll return true if set was changed even some items to add are already in set
-				// true means at least one item was added, so we need to do it hard way ;-)
-				for (Attr attr : (Set<? extends Attr>) value) {
-					addAttribute(element, attributes, attr);
-				}
-			}
-		}
-		writeAttributes(element, attributes);
-
-		boolean emptyTag = HTML.EMPTY_TAGS.contains(tag);
-		writeClosingMark(emptyTag);
-		if (emptyTag) {
-			return;
-		}
-
-		// do not process element dynamic content on null scope
-		if (operators.hasContentOperator()) {
-			if (scope != null) {
-				scope = execOperator(element, scope, operators.getContentOperatorMeta(), format);
-			}
-			if (scope == null && operators.getContentOperatorMeta().opcode != Opcode.OBJECT) {
-				// content operator returns null if fully processed, that is, branch is ended
-				// so just close the tag and return
-				writeEndTag(tag);
-				return;
-			}
-		}
-
-		// an element can have both child elements and text nodes if is formatted text
-		// takes care to deal with formatted text
-		
-		for (ChildNode node : element.getChildNodes()) {
-			if (node.isElement()) {
-				write(node.asElement(), scope);
-			} else {
-				writeTextContent(node.asText());
-			}
-		}
-
-		writeEndTag(tag);
-	}
-
-	/**
-	 * Helper method for operator execution.
-	 * 
-	 * @param element
-	 * @param scope
-	 * @param meta
-	 * @return operator specific value, cast to any type or null.
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	@SuppressWarnings("unchecked")
-	private <T> T execOperator(Element element, Object scope, Meta meta, Format... format) throws IOException {
-		Operator operator = factory.geInstance(meta.opcode);
-		return (T) operator.exec(element, scope, meta.operand, format.length == 1 ? format[0] : null);
-	}
-
-	/**
-	 * Write opening tag mark and tag name but not closing mark. Start a new element start tag, e.g. <em>&lt;div</em>.
-	 * 
-	 * @param tag tag name
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	private void writeOpenTag(String tag) throws IOException {
-		writer.write('<');
-		writer.write(tag);
-	}
-
-	/**
-	 * Write start tag closing mark. Write tag closing mark; if element is empty close the element also, e.g. <em>/&gt;</em>
-	 * 
-	 * @param empty true if element is empty.
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	private void writeClosingMark(boolean empty) throws IOException {
-		if (empty) {
-			writer.write(' ');
-			writer.write('/');
-		}
-		writer.write('>');
-	}
-
-	/**
-	 * Write end tag for non-empty elements. At this point element start tag and its content is already wrote to underlying
-	 * writer and just need to close it with, e.g. <em>&lt/div&gt;</em>.
-	 * 
-	 * @param tag tag name
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	private void writeEndTag(String tag) throws IOException {
-		writer.write('<');
-		writer.write('/');
-		writer.write(tag);
-		writer.write('>');
-	}
-
-	/**
-	 * Traverse all element's attributes and delegates {@link #writeAttribute(String, String)}. Skip operators if
-	 * {@link #enableOperatorsSerialization} is false. This method is called after element start tag was opened.
-	 * 
-	 * @param element element whose attributes to write.
-	 * @throws IOException if underlying writer fails to write.
-	 */
-	private void writeAttributes(Element element, Iterable<Attr> attributes) throws IOException {
-		for (Attr attr : attributes) {
-			final String attrName = attr.getName();
-			if (!enableOperatorsSerialization && Opcode.fromAttrName(attrName) != Opcode.NONE) {
-				// skip operator attributes if operators serialization is disabled
-				continue;
-			}
-			final String attrValue = attr.getValue();
-			if (attrValue.isEmpty()) {
-				// do not write the attribute if its value is empty
-				continue;
-			}
-			if (attrValue.equals(HTML.DEFAULT_ATTRS.get(attrName))) {
-				// do not write the attribute if it is a default one with a default value
-				continue;
-			}
-			writeAttribute(attrName, attrValue);
-		}
-	}
-
-	/**
-	 * Collect all element attributes less CSS class. This method collect all attributes from given <code>element</code> but
-	 * skip the <code>class</code> attribute to allows for operator handling. Anyway, if CSS_CLASS operator is missing static
-	 * CSS class is still included in order to preserve element class.
-	 * 
-	 * @param element element to scan for attributes.
-	 * @return non CSS class element attributes.
-	 */
-	private static Set<Attr> collectAttributes(Element element, boolean includeCssClass) {
-		Set<Attr> attributes = new HashSet<Attr>();
-		Attr cssClass = null;
-		boolean foundDataCssClass = false;
-
-		for (Attr attr : element.getAttrs()) {
-			final AttrImpl attrImpl = new AttrImpl(attr);
-			if (includeCssClass) {
-				attributes.add(attrImpl);
-				continue;
-			}
-
-			// logic for variant with CSS class exclusion
-			if (!"class".equalsIgnoreCase(attr.getName())) {
-				attributes.add(attrImpl);
-			} else {
-				cssClass = attrImpl;
-			}
-			if ("data-css-class".equalsIgnoreCase(attr.getName())) {
-				foundDataCssClass = true;
-			}
-		}
-
-		if (!foundDataCssClass && cssClass != null) {
-			// takes care to preserve static CSS class if CSS_CLASS operator is not present
-			attributes.add(cssClass);
-		}
-		return attributes;
-	}
-
-	/**
-	 * Helper method to add an attribute to a set.
-	 * 
-	 * @param element attribute to add owning element, for debugging,
-	 * @param attributes set of attributes,
-	 * @param value attribute value to add.
-	 */
-	private static void addAttribute(Element element, Set<Attr> attributes, Object value) {
-		Attr attr = (Attr) value;
-		if (!attributes.add(attr)) {
-			throw new TemplateException("Invalid element |%s|. It has both static attribute |%s| and attribute operator.", element, attr.getName());
-		}
-	}
-}
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Stack;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jslib.api.log.Log;
+import com.jslib.api.log.LogFactory;
+import com.jslib.api.template.TemplateException;
+import com.jslib.format.Format;
+import com.jslib.template.xhtml.OperatorsList.Meta;
+
+/**
+ * Templates serializer. This class serialize template document and execute operators on the fly. Its classic use case is HTML
+ * pages serialization on HTTP response writer, but for no means limited to this. This class has specialized writing methods for
+ * elements start, end tag, attributes and text content. Serialization process is started externally by a call to
+ * {@link Serializer#write(Instruction[], Object)} method with compiled template instructions and traverse all elements
+ * descendants, using depth-first algorithm. Traversal is iterative, with an explicit frames stack, see {@link Traversal}, so
+ * document nesting level is not limited by thread stack and serialization can be paused and resumed, see
+ * {@link #traversal(Instruction[], Object)}. Serializer executes template {@link Program} and does not touch template DOM.
+ * <p>
+ * Serializer instances are pooled and reused, together with operators and output buffer, see {@link #acquire()} and
+ * {@link #release()}. A serializer instance is used by a single thread at a time. Pool does not rely on thread local storage
+ * and has no locks so it is safe to use from both platform and virtual threads.
+ * 
+ * @author Iulian Rotaru
+ */
+final class Serializer {
+	/** Class logger. */
+	private static final Log log = LogFactory.getLog(Serializer.class);
+
+	/** Maximum number of idle serializers kept by pool. */
+	private static final int POOL_CAPACITY = 4 * Runtime.getRuntime().availableProcessors();
+
+	/** Idle serializers pool. */
+	private static final Queue<Serializer> pool = new ConcurrentLinkedQueue<>();
+
+	/** Idle serializers count; tracked separately since concurrent queue size is not constant time. */
+	private static final AtomicInteger poolSize = new AtomicInteger();
+
+	/** Minimum number of items rendered by a parallel list chunk. */
+	private static final int MIN_CHUNK_SIZE = 256;
+
+	/** Number of parallel list chunks per pool thread, for load balancing. */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/** Deferred element placeholder, up to placeholder ID. */
+	private static final String DEFER_PLACEHOLDER_START = "<template id=\"js-defer-";
+
+	/** Deferred element placeholder, after placeholder ID. */
+	private static final String DEFER_PLACEHOLDER_END = "\"></template>";
+
+	/** Script helper that replaces placeholder with fragment from preceding template element, then removes both. */
+	private static final String DEFER_SCRIPT = "<script>function jsDefer(id){" + //
+			"var s=document.currentScript,t=s.previousElementSibling;" + //
+			"document.getElementById('js-defer-'+id).replaceWith(t.content);t.remove();s.remove();}</script>";
+
+	/** Deferred fragment wrapper, before fragment content. */
+	private static final String DEFER_FRAGMENT_START = "<template>";
+
+	/** Deferred fragment wrapper, after fragment content and up to placeholder ID. */
+	private static final String DEFER_FRAGMENT_END = "</template><script>jsDefer(";
+
+	/** Deferred fragment wrapper, after placeholder ID. */
+	private static final String DEFER_FRAGMENT_CLOSE = ")</script>";
+
+	/**
+	 * Get a serializer instance from pool or create a new one if pool is empty. Returned serializer should be returned to
+	 * pool with {@link #release()} after serialization completes.
+	 * 
+	 * @return serializer instance.
+	 */
+	static Serializer acquire() {
+		Serializer serializer = pool.poll();
+		if (serializer == null) {
+			return new Serializer();
+		}
+		poolSize.decrementAndGet();
+		return serializer;
+	}
+
+	/** Buffered writer reused by all serializations performed by this serializer. */
+	private final ReusableBufferedWriter bufferedWriter = new ReusableBufferedWriter();
+
+	/** UTF-8 writer reused by all byte oriented serializations, created on first use. */
+	private Utf8Writer utf8Writer;
+
+	/** Appendable writer reused by all string serializations, created on first use. */
+	private AppendableWriter appendableWriter;
+
+	/** This serializer writer, either {@link #bufferedWriter}, {@link #utf8Writer} or {@link #appendableWriter}. */
+	private EscapingWriter writer = bufferedWriter;
+
+	/** Attributes created by attribute operators for the element start tag being serialized. */
+	private final AttributesBuffer attributes = new AttributesBuffer();
+
+	/** Operator factory, created once and reused for all serializations. */
+	private final OperatorFactory factory;
+
+	/**
+	 * Indexes stack for ordered lists. Every ordered list has its own index instance and in order to cope with nested lists we
+	 * used this stack. For the same reason, although indexes are used only by {@link ListOperator}, indexes stack is global per
+	 * serializer instance.
+	 */
+	private Stack<Index> indexes = new Stack<Index>();
+
+	/**
+	 * By default operators are not serialized on resulting document. Forcing this flag to true will determine serializer to
+	 * include operators, useful for data extraction.
+	 */
+	private boolean enableOperatorsSerialization;
+
+	/** Progressive flush policy, null if output is flushed only when serialization completes. */
+	private FlushPolicy flushPolicy;
+
+	/** Output size that triggers a progressive flush, see {@link FlushPolicy#getBytes()}; zero if disabled. */
+	private long flushBytes;
+
+	/** Number of items that triggers a progressive flush, see {@link FlushPolicy#getItems()}; zero if disabled. */
+	private int flushItems;
+
+	/** Writer output size at the moment of last progressive flush. */
+	private long flushedSize;
+
+	/** Number of list or map items written since last items triggered flush. */
+	private int itemsCount;
+
+	/** Executor for deferred elements, null if deferred elements are rendered in place. */
+	private Executor deferExecutor;
+
+	/**
+	 * Deferred fragments rendered concurrently, in completion order. Queue is created per serialization, on first deferred
+	 * element, so that fragments still rendering after a failed serialization never reach a reused serializer.
+	 */
+	private BlockingQueue<DeferredFragment> deferredFragments;
+
+	/** Number of deferred fragments submitted by current serialization, also used to generate placeholder IDs. */
+	private int deferredCount;
+
+	/** Deferred fragment tasks submitted by current serialization, cancelled on release if serialization fails. */
+	private final List<Future<?>> deferredTasks = new ArrayList<>();
+
+	/** Minimum list size for parallel rendering, zero if lists are always rendered sequentially. */
+	private int parallelThreshold;
+
+	/** Fork-join pool for parallel lists rendering, null if parallel lists are disabled. */
+	private ForkJoinPool parallelPool;
+
+	/** Traversal currently running on this serializer, null if none. */
+	private Traversal traversal;
+
+	/** Dynamic content for current serialization, passed to serializers rendering deferred fragments. */
+	private Content content;
+
+	/** Create serializer instance and its operators factory. Use {@link #acquire()} to get a pooled instance. */
+	Serializer() {
+		factory = new OperatorFactory(this);
+	}
+
+	/**
+	 * Reset this serializer state and return it to pool. Writer and content references are released. If pool is full this
+	 * serializer is discarded.
+	 */
+	void release() {
+		bufferedWriter.reset(null);
+		if (utf8Writer != null) {
+			utf8Writer.reset((OutputStream) null);
+		}
+		if (appendableWriter != null) {
+			appendableWriter.reset(null);
+		}
+		writer = bufferedWriter;
+		factory.setContent(null);
+		content = null;
+		deferExecutor = null;
+		cancelDeferred();
+		deferredFragments = null;
+		deferredCount = 0;
+		setParallelLists(0, null);
+		traversal = null;
+		attributes.clear();
+		indexes.clear();
+		enableOperatorsSerialization = false;
+		setFlushPolicy(null);
+		if (poolSize.incrementAndGet() <= POOL_CAPACITY) {
+			pool.offer(this);
+		} else {
+			poolSize.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Set this serializer writer. Output is buffered using a buffer reused by all serializations.
+	 * 
+	 * @param writer resulting document goes on this writer.
+	 */
+	void setWriter(Writer writer) {
+		bufferedWriter.reset(writer);
+		this.writer = bufferedWriter;
+	}
+
+	/**
+	 * Set this serializer output stream. Resulting document is UTF-8 encoded; output is buffered using a buffer reused by all
+	 * serializations.
+	 * 
+	 * @param stream resulting document bytes go on this output stream.
+	 */
+	void setOutputStream(OutputStream stream) {
+		utf8Writer().reset(stream);
+		this.writer = utf8Writer;
+	}
+
+	/**
+	 * Set this serializer byte channel. Resulting document is UTF-8 encoded; output is buffered using a buffer reused by all
+	 * serializations.
+	 * 
+	 * @param channel resulting document bytes go on this byte channel.
+	 */
+	void setChannel(WritableByteChannel channel) {
+		utf8Writer().reset(channel);
+		this.writer = utf8Writer;
+	}
+
+	/**
+	 * Set this serializer byte buffer. Resulting document is UTF-8 encoded and should fit byte buffer remaining space.
+	 * 
+	 * @param byteBuffer resulting document bytes go on this byte buffer.
+	 */
+	void setByteBuffer(ByteBuffer byteBuffer) {
+		utf8Writer().reset(byteBuffer);
+		this.writer = utf8Writer;
+	}
+
+	/**
+	 * Set this serializer appendable. Output is not buffered since appendable is usually a memory buffer itself; if appendable
+	 * is a {@link StringBuilder} it is not synchronized.
+	 * 
+	 * @param appendable resulting document goes on this appendable.
+	 */
+	void setAppendable(Appendable appendable) {
+		if (appendableWriter == null) {
+			appendableWriter = new AppendableWriter();
+		}
+		appendableWriter.reset(appendable);
+		this.writer = appendableWriter;
+	}
+
+	/**
+	 * Get UTF-8 writer, creating it on first use. Serializers used only with character writers do not allocate bytes buffer.
+	 * 
+	 * @return UTF-8 writer.
+	 */
+	private Utf8Writer utf8Writer() {
+		if (utf8Writer == null) {
+			utf8Writer = new Utf8Writer();
+		}
+		return utf8Writer;
+	}
+
+	/**
+	 * Get this serializer current writer. Used to serialize source document as it is, when there is no model to inject.
+	 * 
+	 * @return current writer.
+	 */
+	Writer getWriter() {
+		return writer;
+	}
+
+	/**
+	 * Set this serializer content. Content instance is not used by this class but is passed to pooled operators.
+	 * 
+	 * @param content dynamic content to inject.
+	 */
+	void setContent(Content content) {
+		this.content = content;
+		factory.setContent(content);
+	}
+
+	/**
+	 * Disable operators serialization. By default, operators are included into resulting document. If document is validated
+	 * operators syntax may collide with document grammar and render document invalid; or perhaps author just prefer to hide
+	 * implementation details. In all cases uses this method to disable operators serialization.
+	 */
+	void enableOperatorsSerialization() {
+		enableOperatorsSerialization = true;
+	}
+
+	/**
+	 * Set progressive flush policy. By default output is flushed only when serialization completes.
+	 * 
+	 * @param flushPolicy flush policy, null to disable progressive flush.
+	 */
+	void setFlushPolicy(FlushPolicy flushPolicy) {
+		this.flushPolicy = flushPolicy;
+		this.flushBytes = flushPolicy != null ? flushPolicy.getBytes() : 0;
+		this.flushItems = flushPolicy != null ? flushPolicy.getItems() : 0;
+		this.flushedSize = 0;
+		this.itemsCount = 0;
+	}
+
+	/**
+	 * Set executor for deferred elements. By default deferred elements are rendered in place.
+	 * 
+	 * @param deferExecutor executor for deferred elements, null to render deferred elements in place.
+	 */
+	void setDeferExecutor(Executor deferExecutor) {
+		this.deferExecutor = deferExecutor;
+	}
+
+	/**
+	 * Enable parallel rendering for lists with at least given number of items. By default lists are rendered sequentially.
+	 * 
+	 * @param parallelThreshold minimum list size for parallel rendering, zero to disable parallel lists,
+	 * @param parallelPool fork-join pool for list chunks rendering, ignored if parallel lists are disabled.
+	 */
+	void setParallelLists(int parallelThreshold, ForkJoinPool parallelPool) {
+		this.parallelThreshold = parallelPool != null ? parallelThreshold : 0;
+		this.parallelPool = parallelPool;
+	}
+
+	/**
+	 * Test if output should be flushed after document head end tag.
+	 * 
+	 * @return true if flush after head is enabled.
+	 */
+	boolean isHeadFlush() {
+		return flushPolicy != null && flushPolicy.isHead();
+	}
+
+	/**
+	 * Flush point reached after document head element with operators. Output is flushed only if flush policy enables head
+	 * flush.
+	 * 
+	 * @throws IOException if underlying writer fails to flush.
+	 */
+	void flushHead() throws IOException {
+		if (isHeadFlush()) {
+			flushProgressive();
+		}
+	}
+
+	/**
+	 * Flush point reached after an element marked with <code>data-flush</code> attribute. Output is flushed only if flush
+	 * policy enables marked elements.
+	 * 
+	 * @throws IOException if underlying writer fails to flush.
+	 */
+	void flushMarked() throws IOException {
+		if (flushPolicy != null && flushPolicy.isMarked()) {
+			flushProgressive();
+		}
+	}
+
+	/**
+	 * Get indexes stack.
+	 * 
+	 * @return indexes stack.
+	 */
+	Stack<Index> getIndexes() {
+		return indexes;
+	}
+
+	/**
+	 * Set traversal running on this serializer. Traversal sets itself while running and resets to null when paused or
+	 * completed.
+	 * 
+	 * @param traversal running traversal, null if none.
+	 */
+	void setTraversal(Traversal traversal) {
+		this.traversal = traversal;
+	}
+
+	/**
+	 * Create a paused traversal for given instructions. Traversal is executed in bounded steps, see
+	 * {@link Traversal#run(long)}, allowing for time sliced serialization.
+	 * 
+	 * @param instructions compiled instructions,
+	 * @param scope object scope.
+	 * @return paused traversal.
+	 */
+	Traversal traversal(Instruction[] instructions, Object scope) {
+		return new Traversal(this, new Traversal.InstructionsFrame(instructions, scope, null));
+	}
+
+	/**
+	 * Write the compiled element and its children. If a traversal is running the element is opened in current traversal
+	 * step, or scheduled if current step has already scheduled frames, and element children are scheduled; otherwise a new
+	 * traversal is run to completion.
+	 * 
+	 * @param element compiled element to serialize,
+	 * @param scope object scope.
+	 * @throws TemplateException if underlying writer fails to write.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	void write(ElementInstruction element, Object scope) throws IOException {
+		if (traversal == null || traversal.hasScheduled()) {
+			schedule(new Traversal.ElementFrame(element, scope));
+			return;
+		}
+		write(element, scope, element.getOperators());
+	}
+
+	/**
+	 * Execute compiled instructions in sequence, in the context of given object scope. Static text instructions are sent to
+	 * writer as they are and element instructions delegate {@link #write(ElementInstruction, Object)}. If a traversal is
+	 * running instructions are scheduled, otherwise a new traversal is run to completion.
+	 * 
+	 * @param instructions compiled instructions,
+	 * @param scope object scope.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	void write(Instruction[] instructions, Object scope) throws IOException {
+		if (instructions.length > 0) {
+			schedule(new Traversal.InstructionsFrame(instructions, scope, null));
+		}
+	}
+
+	/**
+	 * Schedule frame on running traversal or, if no traversal is running, run a new traversal for given frame to
+	 * completion.
+	 * 
+	 * @param frame traversal frame.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	private void schedule(Traversal.Frame frame) throws IOException {
+		if (traversal != null) {
+			traversal.schedule(frame);
+			return;
+		}
+		new Traversal(this, frame).run(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Write element end tag, directly or, if current traversal step has already scheduled frames, after scheduled frames.
+	 * 
+	 * @param endTag element end tag.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	private void writeEndTag(String endTag) throws IOException {
+		if (traversal != null && traversal.hasScheduled()) {
+			traversal.schedule(new Traversal.EndTagFrame(endTag));
+			return;
+		}
+		writer.write(endTag);
+	}
+
+	/**
+	 * Flush output if flush policy size threshold is reached. Invoked by traversal after every step.
+	 * 
+	 * @throws IOException if underlying writer fails to flush.
+	 */
+	void checkFlushSize() throws IOException {
+		if (flushBytes > 0 && writer.size() - flushedSize >= flushBytes) {
+			flushProgressive();
+		}
+	}
+
+	/**
+	 * Write list items. List operators invoke this method with item template and list items. For ordered lists, given index
+	 * is incremented before every item. Items are written by a traversal frame, one item per step, see
+	 * {@link Traversal.ItemsFrame}; index is pushed on indexes stack while list items are written.
+	 * <p>
+	 * If parallel lists are enabled and items is a collection with at least parallel threshold items, list is split into
+	 * chunks rendered concurrently on parallel pool, every chunk into its own buffer and by its own serializer; chunks are
+	 * written in list order. Ordered list index is copied into every chunk, starting from chunk offset, so numbering is the
+	 * same as for sequential rendering.
+	 * <p>
+	 * If items come from a reactive publisher, see {@link PublisherIterable}, output is flushed every time serializer is
+	 * about to wait for publisher next item, so that items already rendered reach the client while next ones are fetched.
+	 * Publisher subscription is cancelled if rendering fails.
+	 * 
+	 * @param itemTemplate item template,
+	 * @param items list items,
+	 * @param index ordered list index, null if list is not ordered.
+	 * @throws TemplateException if underlying writer fails to write.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	void writeItems(ElementInstruction itemTemplate, Iterable<?> items, Index index) throws IOException {
+		if (parallelThreshold > 0 && items instanceof Collection && ((Collection<?>) items).size() >= parallelThreshold) {
+			writeItemsParallel(itemTemplate, ((Collection<?>) items).toArray(), index);
+			return;
+		}
+		schedule(new Traversal.ItemsFrame(itemTemplate, items, index));
+	}
+
+	/**
+	 * Write map entries. Map operators invoke this method with key and value templates and map entries. For ordered maps,
+	 * given index is incremented before every entry. Entries are written by a traversal frame, one entry per step, see
+	 * {@link Traversal.EntriesFrame}. Entries from a reactive
+	 * publisher are handled like list items, see {@link #writeItems(ElementInstruction, Iterable, Index)}.
+	 * 
+	 * @param keyTemplate key template,
+	 * @param valueTemplate value template,
+	 * @param entries map entries,
+	 * @param index ordered map index, null if map is not ordered.
+	 * @throws TemplateException if an entry is not a {@link Map.Entry} or underlying writer fails to write.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	void writeEntries(ElementInstruction keyTemplate, ElementInstruction valueTemplate, Iterable<?> entries, Index index) throws IOException {
+		schedule(new Traversal.EntriesFrame(keyTemplate, valueTemplate, entries, index));
+	}
+
+	/**
+	 * Test if iterator has next item. If items come from a publisher that has no item ready, flush output before waiting.
+	 * 
+	 * @param publisher publisher items source, null if items do not come from a publisher,
+	 * @param iterator items iterator.
+	 * @return true if iterator has next item.
+	 * @throws IOException if underlying writer fails to flush.
+	 */
+	boolean awaitNext(PublisherIterable<?> publisher, Iterator<?> iterator) throws IOException {
+		if (publisher != null && !publisher.isReady()) {
+			flushProgressive();
+		}
+		return iterator.hasNext();
+	}
+
+	/**
+	 * Render list items in chunks, concurrently on parallel pool, and write chunks in list order. Chunk size is chosen so that
+	 * every pool thread gets a few chunks, for load balancing, but not below a minimum that keeps per chunk overhead low.
+	 * 
+	 * @param itemTemplate item template,
+	 * @param items list items,
+	 * @param index ordered list index, null if list is not ordered.
+	 * @throws IOException if underlying writer fails to write or chunk rendering fails with IO exception.
+	 */
+	private void writeItemsParallel(final ElementInstruction itemTemplate, final Object[] items, final Index index) throws IOException {
+		final int chunksCount = CHUNKS_PER_THREAD * parallelPool.getParallelism();
+		final int chunkSize = Math.max(MIN_CHUNK_SIZE, (items.length + chunksCount - 1) / chunksCount);
+		final Content content = this.content;
+		final boolean operatorsSerialization = enableOperatorsSerialization;
+		final boolean ordered = index != null;
+
+		List<ForkJoinTask<String>> chunks = new ArrayList<>();
+		for (int start = 0; start < items.length; start += chunkSize) {
+			final int from = start;
+			final int to = Math.min(start + chunkSize, items.length);
+			// list index is not on indexes stack yet; it is pushed by chunk items frame, after outer lists indexes
+			final List<Index> indexes = copyIndexes();
+			final Index chunkIndex = ordered ? new Index() : null;
+			if (ordered) {
+				// chunk numbering continues from chunk offset
+				chunkIndex.value = index.value + from;
+			}
+			chunks.add(parallelPool.submit(() -> renderChunk(itemTemplate, items, from, to, content, operatorsSerialization, indexes, chunkIndex)));
+		}
+
+		int written = 0;
+		try {
+			for (; written < chunks.size(); ++written) {
+				String chunk;
+				try {
+					chunk = chunks.get(written).get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for list chunks.");
+				} catch (ExecutionException e) {
+					rethrow(e.getCause());
+					return;
+				}
+				// release chunk buffer as soon as it is written
+				chunks.set(written, null);
+				writer.write(chunk);
+				itemsWritten(Math.min(chunkSize, items.length - written * chunkSize));
+				checkFlushSize();
+			}
+		} finally {
+			// on failure do not waste pool threads on chunks that will not be written, including the one being waited for;
+			// chunk slot is null if chunk was consumed and failure is on writing it
+			for (int i = written; i < chunks.size(); ++i) {
+				ForkJoinTask<String> chunk = chunks.get(i);
+				if (chunk != null) {
+					chunk.cancel(false);
+				}
+			}
+		}
+		if (ordered) {
+			index.value += items.length;
+		}
+	}
+
+	/**
+	 * Render a chunk of list items to string using a forked serializer. This method is executed by parallel pool.
+	 * 
+	 * @param itemTemplate item template,
+	 * @param items list items,
+	 * @param from chunk start index, inclusive,
+	 * @param to chunk end index, exclusive,
+	 * @param content dynamic content,
+	 * @param operatorsSerialization true if operators are included into serialized document,
+	 * @param indexes copy of outer ordered lists indexes stack, not including this list index,
+	 * @param index chunk index, set to chunk offset, null if list is not ordered.
+	 * @return rendered chunk.
+	 * @throws IOException if item rendering fails.
+	 */
+	private static String renderChunk(ElementInstruction itemTemplate, Object[] items, int from, int to, Content content, boolean operatorsSerialization, List<Index> indexes, Index index) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		Serializer serializer = acquireFork(builder, content, operatorsSerialization, indexes);
+		try {
+			serializer.writeItems(itemTemplate, Arrays.asList(items).subList(from, to), index);
+			return builder.toString();
+		} finally {
+			serializer.release();
+		}
+	}
+
+	/**
+	 * Count written items and flush output if flush policy items threshold is reached.
+	 * 
+	 * @param count number of written items.
+	 * @throws IOException if underlying writer fails to flush.
+	 */
+	void itemsWritten(int count) throws IOException {
+		if (flushItems > 0 && (itemsCount += count) >= flushItems) {
+			itemsCount = 0;
+			flushProgressive();
+		}
+	}
+
+	/**
+	 * Flush underlying writer as requested by progressive flush policy and record output size at flush moment.
+	 * 
+	 * @throws IOException if underlying writer fails to flush.
+	 */
+	void flushProgressive() throws IOException {
+		writer.flush();
+		flushedSize = writer.size();
+	}
+
+	/**
+	 * Render deferred element. If there is no defer executor, element is rendered in place. Otherwise write a placeholder and
+	 * submit element rendering to executor; rendered fragment is collected by {@link #writeDeferred()}. If executor rejects
+	 * the task, element is rendered in place.
+	 * <p>
+	 * Deferred element is rendered by a separate serializer, with the same content and object scope. Indexes stack is copied
+	 * so that numbering operators from deferred element see current ordered list indexes.
+	 * 
+	 * @param body compiled deferred element,
+	 * @param scope object scope.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	void defer(final Instruction[] body, final Object scope) throws IOException {
+		if (deferExecutor == null) {
+			write(body, scope);
+			return;
+		}
+
+		if (deferredFragments == null) {
+			deferredFragments = new LinkedBlockingQueue<>();
+		}
+		final BlockingQueue<DeferredFragment> fragments = deferredFragments;
+		final int id = deferredCount + 1;
+		final Content content = this.content;
+		final boolean operatorsSerialization = enableOperatorsSerialization;
+		final List<Index> indexes = copyIndexes();
+
+		FutureTask<Void> task = new FutureTask<>(() -> fragments.add(renderDeferred(id, body, scope, content, operatorsSerialization, indexes)), null);
+		try {
+			deferExecutor.execute(task);
+		} catch (RejectedExecutionException e) {
+			log.debug("Defer executor rejects fragment. Render it in place.");
+			write(body, scope);
+			return;
+		}
+		deferredTasks.add(task);
+		deferredCount = id;
+
+		writer.write(DEFER_PLACEHOLDER_START);
+		writer.write(Integer.toString(id));
+		writer.write(DEFER_PLACEHOLDER_END);
+	}
+
+	/**
+	 * Wait for deferred fragments submitted by current serialization and write them, in completion order, at the end of
+	 * document. Document written so far, with placeholders, is flushed before waiting and every fragment is flushed as soon as
+	 * it is written. Every fragment is wrapped in a <code>template</code> element followed by a short script that moves
+	 * fragment content in place of its placeholder; script helper function is written once, before the first fragment.
+	 * <p>
+	 * If a fragment fails to render, its exception is propagated and remaining fragments are discarded; fragments not yet
+	 * rendered are cancelled when serializer is released, see {@link #cancelDeferred()}.
+	 * 
+	 * @throws IOException if underlying writer fails to write or fragment rendering fails with IO exception.
+	 * @throws TemplateException if fragment rendering fails.
+	 */
+	void writeDeferred() throws IOException {
+		if (deferredCount == 0) {
+			return;
+		}
+		writer.flush();
+		writer.write(DEFER_SCRIPT);
+		for (int i = 0; i < deferredCount; ++i) {
+			DeferredFragment fragment;
+			try {
+				fragment = deferredFragments.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for deferred fragments.");
+			}
+			if (fragment.error != null) {
+				rethrow(fragment.error);
+			}
+			writer.write(DEFER_FRAGMENT_START);
+			writer.write(fragment.html);
+			writer.write(DEFER_FRAGMENT_END);
+			writer.write(Integer.toString(fragment.id));
+			writer.write(DEFER_FRAGMENT_CLOSE);
+			writer.flush();
+		}
+	}
+
+	/**
+	 * Cancel deferred fragment tasks submitted by current serialization. After a completed serialization all tasks are done
+	 * and this method does nothing; if serialization fails, do not waste defer executor threads on fragments that will not
+	 * be written. Running tasks are not interrupted.
+	 */
+	private void cancelDeferred() {
+		for (Future<?> task : deferredTasks) {
+			task.cancel(false);
+		}
+		deferredTasks.clear();
+	}
+
+	/**
+	 * Render deferred element to string using a serializer from pool. This method is executed by defer executor.
+	 * 
+	 * @param id deferred fragment ID,
+	 * @param body compiled deferred element,
+	 * @param scope object scope,
+	 * @param content dynamic content,
+	 * @param operatorsSerialization true if operators are included into serialized document,
+	 * @param indexes copy of ordered list indexes stack.
+	 * @return rendered fragment or fragment with rendering error.
+	 */
+	private static DeferredFragment renderDeferred(int id, Instruction[] body, Object scope, Content content, boolean operatorsSerialization, List<Index> indexes) {
+		StringBuilder builder = new StringBuilder();
+		Serializer serializer = acquireFork(builder, content, operatorsSerialization, indexes);
+		try {
+			serializer.write(body, scope);
+			return new DeferredFragment(id, builder.toString(), null);
+		} catch (Throwable t) {
+			// always return a fragment, even on error, otherwise writeDeferred() waits forever
+			return new DeferredFragment(id, null, t);
+		} finally {
+			serializer.release();
+		}
+	}
+
+	/**
+	 * Acquire a serializer from pool for rendering a document fragment, possible from another thread. Forked serializer has
+	 * the same content and operators serialization flag as its parent and a copy of parent ordered list indexes. It has no
+	 * flush policy, defer executor or parallel lists, so nested deferred elements and lists are rendered in place.
+	 * 
+	 * @param appendable fragment target,
+	 * @param content dynamic content,
+	 * @param operatorsSerialization true if operators are included into serialized document,
+	 * @param indexes copy of parent ordered list indexes, see {@link #copyIndexes()}.
+	 * @return forked serializer, to be released after fragment is rendered.
+	 */
+	private static Serializer acquireFork(Appendable appendable, Content content, boolean operatorsSerialization, List<Index> indexes) {
+		Serializer serializer = acquire();
+		serializer.setAppendable(appendable);
+		serializer.setContent(content);
+		if (operatorsSerialization) {
+			serializer.enableOperatorsSerialization();
+		}
+		serializer.indexes.addAll(indexes);
+		return serializer;
+	}
+
+	/**
+	 * Copy ordered list indexes stack, for a forked serializer. Indexes are copied since parent continues to increment them.
+	 * 
+	 * @return indexes copy, in stack order.
+	 */
+	private List<Index> copyIndexes() {
+		List<Index> copy = new ArrayList<>(indexes.size());
+		for (Index index : indexes) {
+			Index indexCopy = new Index();
+			indexCopy.value = index.value;
+			copy.add(indexCopy);
+		}
+		return copy;
+	}
+
+	/**
+	 * Rethrow error from fragment rendering, on a forked serializer. IO exceptions, runtime exceptions and errors are rethrown
+	 * as they are; checked exceptions are wrapped into template exception.
+	 * 
+	 * @param error fragment rendering error.
+	 * @throws IOException if error is an IO exception.
+	 */
+	private static void rethrow(Throwable error) throws IOException {
+		if (error instanceof IOException) {
+			throw (IOException) error;
+		}
+		if (error instanceof RuntimeException) {
+			throw (RuntimeException) error;
+		}
+		if (error instanceof Error) {
+			throw (Error) error;
+		}
+		throw new TemplateException(error);
+	}
+
+	/**
+	 * Escape XML reserved chars and write as element text content. Used by text and numbering operators to actually write the
+	 * element text content. At the moment this method is invoked templates engine was already wrote start tag, including
+	 * closing tag mark, e.g. <em>&lt;div attrs... &gt;</em>.
+	 * 
+	 * @param text element text content.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	void writeTextContent(String text) throws IOException {
+		writer.writeEscaped(text);
+	}
+
+	/**
+	 * Write HTML content as it is, that is, no XML escape performed. Used by HTML operator to actually write the element inner
+	 * HTML.
+	 * 
+	 * @param html HTML content.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	void writeHtmlContent(String html) throws IOException {
+		writer.write(html);
+	}
+
+	/**
+	 * Format and send attribute name and value to underlying writer. Used by attribute operators to actually write formatted
+	 * attribute to underlying writer. When attribute operators are executed templates engine was already sent to writer the
+	 * element opening tag mark and tag name, e.g. <em>&lt;div</em>. Formatted attribute is prefixed with space followed by
+	 * name, equals sign and value between double quotes, see below BNF.
+	 * 
+	 * <pre>
+	 *    attribute := ' ' name '=' '"' value '"'
+	 * </pre>
+	 * 
+	 * @param name attribute name,
+	 * @param value attribute value.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	void writeAttribute(String name, String value) throws IOException {
+		writer.write(' ');
+		writer.write(name);
+		writer.write('=');
+		writer.write('"');
+		writer.writeEscaped(value);
+		writer.write('"');
+	}
+
+	/**
+	 * Add attribute to the start tag of the element being serialized. Used by attribute operators; attributes are written
+	 * after all element attribute operators are executed, see {@link #write(ElementInstruction, Object, OperatorsList)}.
+	 * 
+	 * @param name attribute name,
+	 * @param value attribute value, not escaped.
+	 */
+	void addAttribute(String name, String value) {
+		attributes.add(name, value);
+	}
+
+	/**
+	 * Write static template text, already escaped at template compile time. Byte oriented writers copy pre-encoded bytes.
+	 * 
+	 * @param text static text,
+	 * @param utf8 the same static text, UTF-8 encoded.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	void writeStatic(String text, byte[] utf8) throws IOException {
+		writer.writeStatic(text, utf8);
+	}
+
+	/**
+	 * Write string to underlying writer.
+	 * 
+	 * @param string string to send to underlying writer.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	void write(String string) throws IOException {
+		writer.write(string);
+	}
+
+	/**
+	 * Flush underlying writer.
+	 * 
+	 * @throws IOException if underlying writer fails to flush.
+	 */
+	void flush() throws IOException {
+		writer.flush();
+	}
+
+	/**
+	 * Helper method for element serialization. This method is serializer workhorse; it implements templates generic algorithm
+	 * as shown below. Takes care to write given element with all its components: start, end tag, attributes and perhaps text
+	 * content; if element has children, process them recursively.
+	 * <ul>
+	 * <li>if conditional operator exists, return from this method if operator execution returns false,
+	 * <li>if inline operator, execute it and return from this method,
+	 * <li>write element start tag and attributes,
+	 * <li>extract format instance, if one is declared,
+	 * <li>executes all attribute operators,
+	 * <li>if element is empty close element tag and return from this method,
+	 * <li>execute content operator, if any and return from this method if content processed completely,
+	 * <li>schedule children traversal.
+	 * </ul>
+	 * This method is executed by a traversal step and does not recurse: list and map operators schedule items and element
+	 * children are scheduled. End tag is written directly if nothing was scheduled, otherwise it is scheduled too.
+	 * Note that described algorithm is dubbed <em>generic</em> because it operates on operator types, not on concrete one. This
+	 * way, one can add new operators without changing this algorithm.
+	 * 
+	 * @param element compiled element to serialize,
+	 * @param scope scope object,
+	 * @param operators prepared operators list.
+	 * @throws TemplateException if scope is null or this algorithm is not able to end properly.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	private void write(ElementInstruction element, Object scope, OperatorsList operators) throws IOException {
+		// do not process conditional operators on null scope
+		if (scope != null && operators.hasConditionalOperator()) {
+			Object returnedValue = execOperator(element, scope, operators.getConditionalOperatorMeta(), null);
+			if (returnedValue == null) {
+				// conditional operators always returns boolean
+				// anyway, if exception occurs operator super class returns null
+				// this include content exception that can be generated when value is missing
+				// in any case we consider condition not fulfilled and break this document branch processing
+				return;
+			}
+			assert returnedValue instanceof Boolean;
+			boolean branchEnabled = (Boolean) returnedValue;
+			if (!branchEnabled) {
+				log.debug("Element |{dom_element}| rejected by conditional operator.", element);
+				return;
+			}
+		}
+
+		// do not process formatter on null scope
+		Format format = null;
+		if (scope != null && operators.hasFormattingOperator()) {
+			format = execOperator(element, scope, operators.getFormattingOperatorMeta(), null);
+		}
+
+		boolean emptyTag = element.isEmptyTag();
+		if (scope == null) {
+			// on null scope just write element attributes as they are
+			writer.write(element.getNullScopeStartTag());
+		} else if (!operators.hasAttributeOperators()) {
+			writer.write(element.getStartTag());
+		} else {
+			// static attributes are pre-built; attribute operators add dynamic attributes to reusable attributes buffer
+			// attributes declared both static and by operator are rejected at compile time so there is no duplicates check
+			writer.write(element.getOpenStartTag());
+			attributes.clear();
+			for (Meta meta : operators.getAttributeOperatorsMeta()) {
+				execOperator(element, scope, meta, format);
+			}
+			writeAttributes();
+			writeClosingMark(emptyTag);
+		}
+		if (emptyTag) {
+			return;
+		}
+
+		// do not process element dynamic content on null scope
+		if (operators.hasContentOperator()) {
+			if (scope != null) {
+				scope = execOperator(element, scope, operators.getContentOperatorMeta(), format);
+			}
+			if (scope == null && operators.getContentOperatorMeta().opcode != Opcode.OBJECT) {
+				// content operator returns null if fully processed, that is, branch is ended
+				// list and map operators schedule items so end tag is written after them
+				writeEndTag(element.getEndTag());
+				return;
+			}
+		}
+
+		// an element can have both child elements and text nodes if is formatted text
+		// takes care to deal with formatted text
+
+		Instruction[] children = element.getChildren();
+		if (children.length == 0) {
+			writeEndTag(element.getEndTag());
+			return;
+		}
+		// children frame writes end tag after children, saving an end tag frame
+		traversal.schedule(new Traversal.InstructionsFrame(children, scope, element.getEndTag()));
+	}
+
+	/**
+	 * Helper method for operator execution.
+	 * 
+	 * @param element compiled element declaring the operator,
+	 * @param scope scope object,
+	 * @param meta operator meta,
+	 * @param format optional format instance, null if element has no formatting operator.
+	 * @return operator specific value, cast to any type or null.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T execOperator(ElementInstruction element, Object scope, Meta meta, Format format) throws IOException {
+		Operator operator = factory.getInstance(meta.opcode);
+		return (T) operator.exec(element, scope, meta, format);
+	}
+
+	/**
+	 * Write start tag closing mark. Write tag closing mark; if element is empty close the element also, e.g. <em>/&gt;</em>
+	 * 
+	 * @param empty true if element is empty.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	private void writeClosingMark(boolean empty) throws IOException {
+		if (empty) {
+			writer.write(' ');
+			writer.write('/');
+		}
+		writer.write('>');
+	}
+
+	/**
+	 * Traverse attributes created by attribute operators and delegates {@link #writeAttribute(String, String)}. Skip operators
+	 * if {@link #enableOperatorsSerialization} is false. This method is called after element start tag was opened.
+	 * 
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	private void writeAttributes() throws IOException {
+		for (int i = 0; i < attributes.size(); ++i) {
+			String name = attributes.getName(i);
+			String value = attributes.getValue(i);
+			if (isSerializable(name, value, enableOperatorsSerialization)) {
+				writeAttribute(name, value);
+			}
+		}
+		attributes.clear();
+	}
+
+	/**
+	 * Test if attribute should be included into serialized document. Used by both serializer, for attributes created by
+	 * operators, and template compiler, for static attributes.
+	 * 
+	 * @param attrName attribute name,
+	 * @param attrValue attribute value,
+	 * @param operatorsSerialization true if operators are included into serialized document.
+	 * @return true if attribute should be serialized.
+	 */
+	static boolean isSerializable(String attrName, String attrValue, boolean operatorsSerialization) {
+		if (!operatorsSerialization && Opcode.fromAttrName(attrName) != Opcode.NONE) {
+			// skip operator attributes if operators serialization is disabled
+			return false;
+		}
+		if (!operatorsSerialization && (FlushInstruction.ATTR_FLUSH.equalsIgnoreCase(attrName) || DeferInstruction.ATTR_DEFER.equalsIgnoreCase(attrName))) {
+			// flush and defer marks are processed at compile time and, like operators, are not part of resulting document
+			return false;
+		}
+		if (attrValue.isEmpty()) {
+			// do not write the attribute if its value is empty
+			return false;
+		}
+		if (attrValue.equals(HTML.DEFAULT_ATTRS.get(attrName))) {
+			// do not write the attribute if it is a default one with a default value
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Deferred fragment rendered by defer executor. Fragment has either rendered HTML or rendering error.
+	 * 
+	 * @author Iulian Rotaru
+	 */
+	private static final class DeferredFragment {
+		/** Placeholder ID. */
+		final int id;
+
+		/** Rendered fragment, null if rendering fails. */
+		final String html;
+
+		/** Rendering error, null if rendering succeeds. */
+		final Throwable error;
+
+		DeferredFragment(int id, String html, Throwable error) {
+			this.id = id;
+			this.html = html;
+			this.error = error;
+		}
+	}
+}
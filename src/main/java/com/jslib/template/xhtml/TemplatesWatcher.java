@@ -0,0 +1,113 @@
+package com.jslib.template.xhtml;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.jslib.api.log.Log;
+import com.jslib.api.log.LogFactory;
+
+/**
+ * Watch template files directories and invalidate cached programs when template files are changed. Watcher uses a background
+ * daemon thread that waits for file system events; template rendering path is not involved and never checks file
+ * modification time. Invalidated templates are loaded again on next request. Already created templates keep using the old
+ * program till serialization completes.
+ * <p>
+ * Only directories containing loaded templates are watched; a directory is registered on first template loaded from it. If
+ * file system reports lost events all cached programs are invalidated.
+ *
+ * @author Iulian Rotaru
+ */
+final class TemplatesWatcher implements Runnable {
+	/** Class logger. */
+	private static final Log log = LogFactory.getLog(TemplatesWatcher.class);
+
+	/** Cache for compiled template programs, updated by this watcher. */
+	private final ProgramCache cache;
+
+	/** File system watch service. */
+	private final WatchService watchService;
+
+	/** Directories already registered to watch service. */
+	private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+
+	/** Background thread waiting for file system events. */
+	private final Thread thread;
+
+	/**
+	 * Create watch service and start background thread.
+	 *
+	 * @param cache programs cache to invalidate on template files changes.
+	 * @throws IOException if watch service creation fails.
+	 */
+	TemplatesWatcher(ProgramCache cache) throws IOException {
+		this.cache = cache;
+		this.watchService = FileSystems.getDefault().newWatchService();
+		this.thread = new Thread(this, "templates-watcher");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Ensure template file parent directory is watched. Template file path should be absolute.
+	 *
+	 * @param file absolute path of template file.
+	 * @throws IOException if directory registration fails.
+	 */
+	void watch(Path file) throws IOException {
+		Path directory = file.getParent();
+		if (directory != null && directories.add(directory)) {
+			directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+			log.debug("Watch templates directory |{directory}|.", directory);
+		}
+	}
+
+	/** Stop watching template files. Background thread exits on watch service closing. */
+	void close() {
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			log.error("Fail to close templates watch service: {exception}", e);
+		}
+	}
+
+	@Override
+	public void run() {
+		for (;;) {
+			WatchKey key;
+			try {
+				key = watchService.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				break;
+			}
+
+			Path directory = (Path) key.watchable();
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW) {
+					log.warn("Templates watch service lost events on |{directory}|. Invalidate all cached templates.", directory);
+					cache.clear();
+					continue;
+				}
+				String templateName = directory.resolve((Path) event.context()).toString();
+				if (cache.remove(templateName)) {
+					log.debug("Template |{template_name}| changed. Invalidate cached program.", templateName);
+				}
+			}
+			if (!key.reset()) {
+				// directory is no longer accessible; allow registering it again if recreated
+				directories.remove(directory);
+			}
+		}
+	}
+}
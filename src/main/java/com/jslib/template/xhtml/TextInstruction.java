@@ -0,0 +1,102 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Static text instruction. Text is already escaped at template compile time and is sent to serializer writer as it is. Text
+ * is UTF-8 encoded at compile time too so that byte oriented serialization just copies it.
+ * <p>
+ * If text contains document head end tag it is split at compile time after <code>&lt;/head&gt;</code> so that serializer can
+ * flush output there, if {@link FlushPolicy} requires it, without searching text at serialization time.
+ *
+ * @author Iulian Rotaru
+ */
+final class TextInstruction extends Instruction {
+	/** Head end tag, in lower case. */
+	private static final String HEAD_END_TAG = "</head>";
+
+	/** Escaped static text. */
+	private final String text;
+
+	/** Escaped static text, UTF-8 encoded. */
+	private final byte[] utf8;
+
+	/** Text split after head end tag, null if text does not contain head end tag. */
+	private final TextInstruction[] headSplit;
+
+	/**
+	 * Construct static text instruction.
+	 *
+	 * @param text escaped static text.
+	 */
+	TextInstruction(String text) {
+		this(text, true);
+	}
+
+	/**
+	 * Construct static text instruction and optionally split it after head end tag.
+	 *
+	 * @param text escaped static text,
+	 * @param split true if text should be split after head end tag.
+	 */
+	private TextInstruction(String text, boolean split) {
+		this.text = text;
+		this.utf8 = text.getBytes(StandardCharsets.UTF_8);
+		int index = split ? headEnd(text) : -1;
+		if (index == -1) {
+			this.headSplit = null;
+		} else {
+			this.headSplit = new TextInstruction[] { new TextInstruction(text.substring(0, index), false), new TextInstruction(text.substring(index), false) };
+		}
+	}
+
+	/**
+	 * Get this instruction escaped text.
+	 *
+	 * @return escaped text.
+	 */
+	String getText() {
+		return text;
+	}
+
+	@Override
+	void exec(Serializer serializer, Object scope) throws IOException {
+		if (headSplit != null && serializer.isHeadFlush()) {
+			headSplit[0].exec(serializer, scope);
+			serializer.flushProgressive();
+			headSplit[1].exec(serializer, scope);
+			return;
+		}
+		serializer.writeStatic(text, utf8);
+	}
+
+	@Override
+	long weight() {
+		long weight = 2 * OBJECT_OVERHEAD + 2L * text.length() + utf8.length;
+		if (headSplit != null) {
+			weight += OBJECT_OVERHEAD + headSplit[0].weight() + headSplit[1].weight();
+		}
+		return weight;
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+
+	/**
+	 * Get the index just after head end tag, case insensitive.
+	 *
+	 * @param text static text.
+	 * @return index after head end tag or -1 if text does not contain head end tag.
+	 */
+	private static int headEnd(String text) {
+		for (int i = text.indexOf("</"); i != -1; i = text.indexOf("</", i + 2)) {
+			if (text.regionMatches(true, i, HEAD_END_TAG, 0, HEAD_END_TAG.length())) {
+				return i + HEAD_END_TAG.length();
+			}
+		}
+		return -1;
+	}
+}
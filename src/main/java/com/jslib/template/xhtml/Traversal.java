@@ -0,0 +1,340 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.jslib.api.template.TemplateException;
+
+/**
+ * Iterative traversal of compiled template instructions, using an explicit frames stack instead of Java call stack. Document
+ * nesting level is limited only by heap, not by thread stack size, and traversal can be paused after a bounded number of
+ * steps and resumed later, possible on another thread, see {@link #run(long)}.
+ * <p>
+ * A frame is a unit of resumable work: a sequence of instructions, list items or map entries. Every step executes a small,
+ * bounded piece of work, e.g. writes static text or opens an element, and can schedule new frames, e.g. element children.
+ * Frames scheduled by a step are executed, in scheduling order, before the frame that scheduled them is resumed. Output
+ * produced directly by a step is therefore written before output of frames scheduled by that step; serializer takes care to
+ * schedule instead of writing directly if current step has already scheduled frames.
+ * <p>
+ * Traversal is owned by a serializer and is not thread safe.
+ *
+ * @author Iulian Rotaru
+ */
+final class Traversal {
+	/** Serializer running this traversal. */
+	private final Serializer serializer;
+
+	/** Frames stack. Top frame is executed next. */
+	private final Deque<Frame> stack = new ArrayDeque<>();
+
+	/** Frames scheduled by current step, in scheduling order. */
+	private final List<Frame> scheduled = new ArrayList<>();
+
+	/**
+	 * Create traversal with given root frame.
+	 *
+	 * @param serializer serializer running this traversal,
+	 * @param root root frame.
+	 */
+	Traversal(Serializer serializer, Frame root) {
+		this.serializer = serializer;
+		this.stack.push(root);
+	}
+
+	/**
+	 * Schedule frame to be executed after current step and before current frame is resumed.
+	 *
+	 * @param frame frame to schedule.
+	 */
+	void schedule(Frame frame) {
+		scheduled.add(frame);
+	}
+
+	/**
+	 * Test if current step has scheduled frames. If true, output should not be written directly since it would precede
+	 * output of already scheduled frames.
+	 *
+	 * @return true if current step has scheduled frames.
+	 */
+	boolean hasScheduled() {
+		return !scheduled.isEmpty();
+	}
+
+	/**
+	 * Execute at most given number of steps. Return true if traversal is completed or false if it was paused and should be
+	 * resumed with another call to this method. If a step fails, all pending frames are aborted and traversal is completed.
+	 *
+	 * @param steps maximum number of steps to execute, positive.
+	 * @return true if traversal is completed.
+	 * @throws IOException if underlying writer fails to write.
+	 */
+	boolean run(long steps) throws IOException {
+		serializer.setTraversal(this);
+		try {
+			for (; steps > 0 && !stack.isEmpty(); --steps) {
+				if (stack.peek().step(serializer, this)) {
+					stack.pop();
+				}
+				for (int i = scheduled.size() - 1; i >= 0; --i) {
+					stack.push(scheduled.get(i));
+				}
+				scheduled.clear();
+				serializer.checkFlushSize();
+			}
+			return stack.isEmpty();
+		} catch (Throwable t) {
+			abort();
+			throw t;
+		} finally {
+			serializer.setTraversal(null);
+		}
+	}
+
+	/** Abort all pending frames and clear frames stack. Used when traversal fails or is cancelled while paused. */
+	void abort() {
+		for (Frame frame : scheduled) {
+			frame.abort();
+		}
+		scheduled.clear();
+		for (Frame frame : stack) {
+			frame.abort();
+		}
+		stack.clear();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// frames
+
+	/**
+	 * Traversal frame.
+	 *
+	 * @author Iulian Rotaru
+	 */
+	static abstract class Frame {
+		/**
+		 * Execute one step of this frame.
+		 *
+		 * @param serializer serializer running traversal,
+		 * @param traversal running traversal, used to schedule new frames.
+		 * @return true if this frame is completed.
+		 * @throws IOException if underlying writer fails to write.
+		 */
+		abstract boolean step(Serializer serializer, Traversal traversal) throws IOException;
+
+		/** Release frame resources when traversal is aborted. This default implementation does nothing. */
+		void abort() {
+		}
+	}
+
+	/**
+	 * Instructions sequence, optionally followed by an end tag. Every step executes one instruction; end tag is written after
+	 * all frames scheduled by last instruction are completed.
+	 *
+	 * @author Iulian Rotaru
+	 */
+	static final class InstructionsFrame extends Frame {
+		private final Instruction[] instructions;
+		private final Object scope;
+		private final String endTag;
+		private int next;
+
+		/**
+		 * Construct instructions frame.
+		 *
+		 * @param instructions instructions to execute,
+		 * @param scope object scope,
+		 * @param endTag end tag to write after instructions, null if none.
+		 */
+		InstructionsFrame(Instruction[] instructions, Object scope, String endTag) {
+			this.instructions = instructions;
+			this.scope = scope;
+			this.endTag = endTag;
+		}
+
+		@Override
+		boolean step(Serializer serializer, Traversal traversal) throws IOException {
+			if (next < instructions.length) {
+				instructions[next++].exec(serializer, scope);
+				if (next < instructions.length || traversal.hasScheduled()) {
+					return false;
+				}
+			}
+			if (endTag != null) {
+				serializer.write(endTag);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Single element, used when an element cannot be opened directly because current step has already scheduled frames.
+	 *
+	 * @author Iulian Rotaru
+	 */
+	static final class ElementFrame extends Frame {
+		private final ElementInstruction element;
+		private final Object scope;
+
+		ElementFrame(ElementInstruction element, Object scope) {
+			this.element = element;
+			this.scope = scope;
+		}
+
+		@Override
+		boolean step(Serializer serializer, Traversal traversal) throws IOException {
+			serializer.write(element, scope);
+			return true;
+		}
+	}
+
+	/**
+	 * Element end tag, used when end tag cannot be written directly because current step has already scheduled frames.
+	 *
+	 * @author Iulian Rotaru
+	 */
+	static final class EndTagFrame extends Frame {
+		private final String endTag;
+
+		EndTagFrame(String endTag) {
+			this.endTag = endTag;
+		}
+
+		@Override
+		boolean step(Serializer serializer, Traversal traversal) throws IOException {
+			serializer.write(endTag);
+			return true;
+		}
+	}
+
+	/**
+	 * Base class for list items and map entries frames. Every step opens one item and item content is scheduled; item is
+	 * counted as written when this frame is resumed. For ordered lists and maps, index is pushed on serializer indexes stack
+	 * while this frame is active and is incremented before every item.
+	 *
+	 * @author Iulian Rotaru
+	 */
+	static abstract class IteratorFrame extends Frame {
+		private final Iterable<?> items;
+		private final PublisherIterable<?> publisher;
+		private final Index index;
+		private Iterator<?> iterator;
+
+		/**
+		 * Construct iterator frame.
+		 *
+		 * @param items items source,
+		 * @param index ordered list or map index, null if not ordered.
+		 */
+		IteratorFrame(Iterable<?> items, Index index) {
+			this.items = items;
+			this.publisher = items instanceof PublisherIterable ? (PublisherIterable<?>) items : null;
+			this.index = index;
+		}
+
+		@Override
+		boolean step(Serializer serializer, Traversal traversal) throws IOException {
+			if (iterator == null) {
+				iterator = items.iterator();
+				if (index != null) {
+					serializer.getIndexes().push(index);
+				}
+			} else {
+				serializer.itemsWritten(1);
+			}
+
+			if (!serializer.awaitNext(publisher, iterator)) {
+				if (index != null) {
+					serializer.getIndexes().pop();
+				}
+				return true;
+			}
+			if (index != null) {
+				index.increment();
+			}
+			writeItem(serializer, iterator.next());
+			return false;
+		}
+
+		/**
+		 * Write item.
+		 *
+		 * @param serializer serializer running traversal,
+		 * @param item item object.
+		 * @throws IOException if underlying writer fails to write.
+		 */
+		abstract void writeItem(Serializer serializer, Object item) throws IOException;
+
+		/** Cancel publisher subscription, if items source is a publisher. */
+		@Override
+		void abort() {
+			if (publisher != null) {
+				publisher.cancel();
+			}
+		}
+	}
+
+	/**
+	 * List items.
+	 *
+	 * @author Iulian Rotaru
+	 */
+	static final class ItemsFrame extends IteratorFrame {
+		private final ElementInstruction itemTemplate;
+
+		/**
+		 * Construct list items frame.
+		 *
+		 * @param itemTemplate item template,
+		 * @param items list items,
+		 * @param index ordered list index, null if list is not ordered.
+		 */
+		ItemsFrame(ElementInstruction itemTemplate, Iterable<?> items, Index index) {
+			super(items, index);
+			this.itemTemplate = itemTemplate;
+		}
+
+		@Override
+		void writeItem(Serializer serializer, Object item) throws IOException {
+			serializer.write(itemTemplate, item);
+		}
+	}
+
+	/**
+	 * Map entries. Key and value templates are written in sequence and entry is counted as a single item.
+	 *
+	 * @author Iulian Rotaru
+	 */
+	static final class EntriesFrame extends IteratorFrame {
+		private final ElementInstruction keyTemplate;
+		private final ElementInstruction valueTemplate;
+
+		/**
+		 * Construct map entries frame.
+		 *
+		 * @param keyTemplate key template,
+		 * @param valueTemplate value template,
+		 * @param entries map entries,
+		 * @param index ordered map index, null if map is not ordered.
+		 */
+		EntriesFrame(ElementInstruction keyTemplate, ElementInstruction valueTemplate, Iterable<?> entries, Index index) {
+			super(entries, index);
+			this.keyTemplate = keyTemplate;
+			this.valueTemplate = valueTemplate;
+		}
+
+		@Override
+		void writeItem(Serializer serializer, Object item) throws IOException {
+			if (!(item instanceof Map.Entry)) {
+				throw new TemplateException("Invalid type. Expected map entry but got |%s|.", item.getClass());
+			}
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) item;
+			serializer.write(keyTemplate, entry.getKey());
+			serializer.write(valueTemplate, entry.getValue());
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writer that encodes characters to UTF-8 directly into a reusable bytes buffer and sends bytes to an output stream, a byte
+ * channel or a byte buffer. Static template text is encoded once, at template compile time, and copied as it is, see
+ * {@link #writeStatic(String, byte[])}; only dynamic values are encoded at serialization time. ASCII characters, that is,
+ * the vast majority of markup and of most values, take a fast path that stores one byte per character.
+ * <p>
+ * Like {@link ReusableBufferedWriter}, this writer is owned by a {@link Serializer} instance, is used by a single thread at a
+ * time and its buffer is allocated once; for a new serialization just reset the target.
+ * <p>
+ * Unpaired surrogates are encoded as question mark, the same as {@link String#getBytes(java.nio.charset.Charset)} does.
+ *
+ * @author Iulian Rotaru
+ */
+final class Utf8Writer extends EscapingWriter {
+	/** Default buffer size, in bytes. */
+	private static final int BUFFER_SIZE = 8192;
+
+	/** Maximum number of bytes a single character, or surrogates pair, is encoded to. */
+	private static final int MAX_CHAR_BYTES = 4;
+
+	/** Replacement byte for unpaired surrogates. */
+	private static final byte REPLACEMENT = (byte) '?';
+
+	/** Bytes buffer. */
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	/** Bytes buffer wrapper used to write to byte channel; created once and reused. */
+	private final ByteBuffer wrapper = ByteBuffer.wrap(buffer);
+
+	/** Target output stream, null if target is not an output stream. */
+	private OutputStream stream;
+
+	/** Target byte channel, null if target is not a byte channel. */
+	private WritableByteChannel channel;
+
+	/** Target byte buffer, null if target is not a byte buffer. */
+	private ByteBuffer byteBuffer;
+
+	/** Number of bytes in buffer. */
+	private int count;
+
+	/** Number of bytes already sent to target. */
+	private long flushed;
+
+	/** High surrogate waiting for its low surrogate pair, zero if none. */
+	private char highSurrogate;
+
+	/**
+	 * Prepare this writer for a new serialization to an output stream.
+	 *
+	 * @param stream target output stream, null to release current target.
+	 */
+	void reset(OutputStream stream) {
+		reset();
+		this.stream = stream;
+	}
+
+	/**
+	 * Prepare this writer for a new serialization to a byte channel.
+	 *
+	 * @param channel target byte channel.
+	 */
+	void reset(WritableByteChannel channel) {
+		reset();
+		this.channel = channel;
+	}
+
+	/**
+	 * Prepare this writer for a new serialization to a byte buffer. Byte buffer should have enough remaining space for the
+	 * entire serialized document, otherwise {@link java.nio.BufferOverflowException} is thrown.
+	 *
+	 * @param byteBuffer target byte buffer.
+	 */
+	void reset(ByteBuffer byteBuffer) {
+		reset();
+		this.byteBuffer = byteBuffer;
+	}
+
+	/** Discard buffered bytes, if any, and release current target. */
+	private void reset() {
+		stream = null;
+		channel = null;
+		byteBuffer = null;
+		count = 0;
+		flushed = 0;
+		highSurrogate = 0;
+	}
+
+	@Override
+	long size() {
+		return flushed + count;
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (BUFFER_SIZE - count < MAX_CHAR_BYTES) {
+			flushBuffer();
+		}
+		encode((char) c);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		for (int end = off + len; off < end; ++off) {
+			if (BUFFER_SIZE - count < MAX_CHAR_BYTES) {
+				flushBuffer();
+			}
+			char c = cbuf[off];
+			if (c < 0x80 && highSurrogate == 0) {
+				buffer[count++] = (byte) c;
+				continue;
+			}
+			encode(c);
+		}
+	}
+
+	@Override
+	public void write(String str) throws IOException {
+		write(str, 0, str.length());
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		for (int end = off + len; off < end; ++off) {
+			if (BUFFER_SIZE - count < MAX_CHAR_BYTES) {
+				flushBuffer();
+			}
+			char c = str.charAt(off);
+			if (c < 0x80 && highSurrogate == 0) {
+				buffer[count++] = (byte) c;
+				continue;
+			}
+			encode(c);
+		}
+	}
+
+	/**
+	 * Write UTF-8 bytes encoded at template compile time. Characters counterpart is not used.
+	 */
+	@Override
+	void writeStatic(String text, byte[] utf8) throws IOException {
+		// static text never starts with a low surrogate so pending high surrogate is unpaired
+		writeUnpairedSurrogate();
+		if (utf8.length > BUFFER_SIZE - count) {
+			flushBuffer();
+			if (utf8.length >= BUFFER_SIZE) {
+				// large chunk does not fit buffer; write it directly
+				writeBytes(utf8, 0, utf8.length);
+				return;
+			}
+		}
+		System.arraycopy(utf8, 0, buffer, count, utf8.length);
+		count += utf8.length;
+	}
+
+	/**
+	 * Send buffered bytes to target and flush it. A high surrogate still waiting for its pair is unpaired, since flush occurs
+	 * at output end or between serializer writes, and is encoded as replacement byte.
+	 */
+	@Override
+	public void flush() throws IOException {
+		writeUnpairedSurrogate();
+		flushBuffer();
+		if (stream != null) {
+			stream.flush();
+		}
+	}
+
+	/**
+	 * Does nothing since target is owned by serializer caller. This writer is never closed and can be reused.
+	 */
+	@Override
+	public void close() {
+	}
+
+	/**
+	 * Encode a not ASCII character into buffer. Caller should ensure buffer has room for {@link #MAX_CHAR_BYTES}.
+	 *
+	 * @param c character to encode.
+	 */
+	private void encode(char c) {
+		if (highSurrogate != 0) {
+			char high = highSurrogate;
+			highSurrogate = 0;
+			if (Character.isLowSurrogate(c)) {
+				int codePoint = Character.toCodePoint(high, c);
+				buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+				buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+				return;
+			}
+			buffer[count++] = REPLACEMENT;
+		}
+
+		if (c < 0x80) {
+			buffer[count++] = (byte) c;
+		} else if (c < 0x800) {
+			buffer[count++] = (byte) (0xC0 | (c >> 6));
+			buffer[count++] = (byte) (0x80 | (c & 0x3F));
+		} else if (Character.isHighSurrogate(c)) {
+			highSurrogate = c;
+		} else if (Character.isLowSurrogate(c)) {
+			buffer[count++] = REPLACEMENT;
+		} else {
+			buffer[count++] = (byte) (0xE0 | (c >> 12));
+			buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+			buffer[count++] = (byte) (0x80 | (c & 0x3F));
+		}
+	}
+
+	/**
+	 * Encode pending high surrogate, if any, as replacement byte.
+	 *
+	 * @throws IOException if target fails to write.
+	 */
+	private void writeUnpairedSurrogate() throws IOException {
+		if (highSurrogate != 0) {
+			highSurrogate = 0;
+			if (count == BUFFER_SIZE) {
+				flushBuffer();
+			}
+			buffer[count++] = REPLACEMENT;
+		}
+	}
+
+	/**
+	 * Send buffered bytes to target.
+	 *
+	 * @throws IOException if target fails to write.
+	 */
+	private void flushBuffer() throws IOException {
+		if (count > 0) {
+			writeBytes(buffer, 0, count);
+			count = 0;
+		}
+	}
+
+	/**
+	 * Write bytes to target.
+	 *
+	 * @param bytes bytes array,
+	 * @param off bytes offset,
+	 * @param len number of bytes to write.
+	 * @throws IOException if target fails to write.
+	 */
+	private void writeBytes(byte[] bytes, int off, int len) throws IOException {
+		flushed += len;
+		if (stream != null) {
+			stream.write(bytes, off, len);
+			return;
+		}
+		if (channel != null) {
+			ByteBuffer source = bytes == buffer ? wrapper : ByteBuffer.wrap(bytes);
+			source.limit(off + len).position(off);
+			while (source.hasRemaining()) {
+				channel.write(source);
+			}
+			return;
+		}
+		byteBuffer.put(bytes, off, len);
+	}
+}
@@ -1,168 +1,455 @@
-package com.jslib.template.xhtml;
-
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.StringWriter;
-import java.io.Writer;
-
-import com.jslib.api.dom.Document;
-import com.jslib.api.log.Log;
-import com.jslib.api.log.LogFactory;
-import com.jslib.api.template.Template;
-import com.jslib.util.Params;
-
-/**
- * Implementation for template interface. Basically this implementation has a reference to a template document -
- * injected at template instance creation and delegates {@link Serializer#write(js.dom.Element, Object)} for actual
- * template serialization.
- * <p>
- * Templates engine creates a new instance of this template class for every serialization but wrapped document instance
- * is reused. This implementation takes care to not alter template document.
- * 
- * @author Iulian Rotaru
- * @version final
- */
-public final class XhtmlTemplate implements Template
-{
-  /** Class logger. */
-  private static final Log log = LogFactory.getLog(XhtmlTemplate.class);
-
-  /** Template name, unique per current JVM. This name is provided by external logic. */
-  private final String name;
-
-  /** Template document. */
-  private final Document document;
-
-  /**
-   * Include XML prolog into serialization process, flag default to true. If document is (X)HTML, prolog is replaced by
-   * DOCTYPE. This flag can be forced to false with property setter, e.g.
-   * <code>setProperty("js.template.serialize.prolog", false)</code>.
-   */
-  private boolean serializeProlog;
-
-  /**
-   * By default operators are not included into serialized template. In order to enable operators serialization uses
-   * property setter, e.g. <code>setProperty("js.template.serialize.operator", true)</code>.
-   */
-  private boolean serializeOperators;
-
-  /**
-   * Construct template engine instance.
-   * 
-   * @param name unique template name.
-   * @param document reference to template document.
-   */
-  public XhtmlTemplate(String name, Document document)
-  {
-    this.name = name;
-    this.document = document;
-    this.serializeProlog = true;
-    this.serializeOperators = false;
-  }
-
-  @Override
-  public String getName()
-  {
-    return name;
-  }
-
-  /**
-   * Set template instance properties overriding the template engine ones. Current implementation deals with
-   * <code>js.template.serialize.prolog</code> and <code>js.template.serialize.operator</code> flags.
-   * <p>
-   * First is used to disable prolog serialization. By default prolog serialization is enabled, see
-   * {@link #serializeProlog}. Use this property to disable it, that to not include XML prolog, respective X(H)MTL
-   * DOCTYPE, into serialization output.
-   * <p>
-   * The second property is used to control operators serialization. By default, templates operators are not included
-   * into resulting document. If one may want to include operators, perhaps in order to enable data extraction, uses
-   * this method. But be warned that if document is validated operators syntax may collide with document grammar and
-   * render document invalid.
-   * 
-   * @param name property name,
-   * @param value property value.
-   */
-  @Override
-  public void setProperty(String name, Object value)
-  {
-    switch(name) {
-    case "js.template.serialize.prolog":
-      serializeProlog = (Boolean)value;
-      break;
-
-    case "js.template.serialize.operator":
-      serializeOperators = (Boolean)value;
-      break;
-    }
-  }
-
-  @Override
-  public void serialize(Object model, Writer writer) throws IOException
-  {
-    Params.notNull(writer, "Writer");
-    _serialize(writer, model);
-  }
-
-  @Override
-  public String serialize(Object model)
-  {
-    Writer writer = new StringWriter();
-    try {
-      _serialize(writer, model);
-    }
-    catch(IOException e) {
-      log.error(e);
-    }
-    // do not need to close string writer; excerpt from api-doc:
-    // Closing a StringWriter has no effect.
-    return writer.toString();
-  }
-
-  /**
-   * Serialize template with given domain model to a writer. Walk through template document from its root and serialize
-   * every node; if node contains operators execute them. Operators extract values from given domain model and process
-   * them, result going to the same writer.
-   * <p>
-   * Writer parameter does not need to be {@link BufferedWriter}, but is acceptable. This interface implementation takes
-   * care to initialize the writer accordingly. Given domain model can be an instance of {@link Content} or any POJO
-   * containing values needed by template operators.
-   * <p>
-   * If any argument is null or writer is already closed this method behavior is not defined.
-   * <p>
-   * This method creates and instance of {@link Serializer} then delegates
-   * {@link Serializer#write(js.dom.Element, Object)} for actual work.
-   * 
-   * @param model domain model object to inject into template,
-   * @param writer writer to serialize template to.
-   */
-  private void _serialize(Writer writer, Object model) throws IOException
-  {
-    if(model == null) {
-      document.serialize(writer);
-      return;
-    }
-
-    Serializer serializer = new Serializer();
-    if(serializeOperators) {
-      serializer.enableOperatorsSerialization();
-    }
-
-    Content content = model instanceof Content ? (Content)model : new Content(model);
-    serializer.setContent(content);
-    serializer.setWriter(writer);
-
-    if(serializeProlog) {
-      if(document.isXML()) {
-        serializer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n");
-      }
-      else {
-        // if is not XML document should be HTML5
-        serializer.write("<!DOCTYPE HTML>\r\n");
-      }
-    }
-    if(document.getRoot() != null) {
-      serializer.write(document.getRoot(), content.getModel());
-    }
-    serializer.flush();
-  }
-}
+package com.jslib.template.xhtml;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+
+import com.jslib.api.dom.Document;
+import com.jslib.api.log.Log;
+import com.jslib.api.log.LogFactory;
+import com.jslib.api.template.Template;
+import com.jslib.util.Params;
+
+/**
+ * Implementation for template interface. Basically this implementation has a reference to a template {@link Program} -
+ * compiled from template document and injected at template instance creation, and delegates
+ * {@link Serializer#write(ElementInstruction, Object)} for actual template serialization.
+ * <p>
+ * Templates engine creates a new instance of this template class for every serialization but wrapped program instance
+ * is reused. This implementation takes care to not alter template program or source document.
+ * 
+ * @author Iulian Rotaru
+ * @version final
+ */
+public final class XhtmlTemplate implements Template
+{
+  /** Class logger. */
+  private static final Log log = LogFactory.getLog(XhtmlTemplate.class);
+
+  /** Template name, unique per current JVM. This name is provided by external logic. */
+  private final String name;
+
+  /**
+   * Template program compiled from template document. Replaced by a program compiled with operators serialization if
+   * operators serialization is enabled for this template instance.
+   */
+  private Program program;
+
+  /**
+   * Include XML prolog into serialization process, flag default to true. If document is (X)HTML, prolog is replaced by
+   * DOCTYPE. This flag can be forced to false with property setter, e.g.
+   * <code>setProperty("js.template.serialize.prolog", false)</code>.
+   */
+  private boolean serializeProlog;
+
+  /**
+   * By default operators are not included into serialized template. In order to enable operators serialization uses
+   * property setter, e.g. <code>setProperty("js.template.serialize.operator", true)</code>.
+   */
+  private boolean serializeOperators;
+
+  /**
+   * Progressive flush policy, by default disabled. Configured with <code>js.template.flush.*</code> properties, e.g.
+   * <code>setProperty("js.template.flush.head", true)</code>; see {@link FlushPolicy} for supported properties.
+   */
+  private final FlushPolicy flushPolicy = new FlushPolicy();
+
+  /**
+   * Executor for elements marked with <code>data-defer</code> attribute, by default null in which case deferred elements
+   * are rendered in place. Configured with <code>setProperty("js.template.defer.executor", executor)</code>; see
+   * {@link DeferInstruction}.
+   */
+  private Executor deferExecutor;
+
+  /**
+   * Minimum list size for parallel rendering, by default zero meaning lists are always rendered sequentially. Configured
+   * with <code>setProperty("js.template.parallel.threshold", size)</code>.
+   */
+  private int parallelThreshold;
+
+  /**
+   * Fork-join pool for parallel lists rendering, default to common pool. Configured with
+   * <code>setProperty("js.template.parallel.pool", pool)</code>.
+   */
+  private ForkJoinPool parallelPool = ForkJoinPool.commonPool();
+
+  /**
+   * Construct template instance and compile given template document. Prefer templates engine, that caches compiled
+   * programs, since compiling template document is costly.
+   * 
+   * @param name unique template name.
+   * @param document reference to template document.
+   */
+  public XhtmlTemplate(String name, Document document)
+  {
+    this(name, new Program(document, false));
+  }
+
+  /**
+   * Construct template instance for an already compiled template program.
+   * 
+   * @param name unique template name.
+   * @param program compiled template program.
+   */
+  XhtmlTemplate(String name, Program program)
+  {
+    this.name = name;
+    this.program = program;
+    this.serializeProlog = true;
+    this.serializeOperators = false;
+  }
+
+  @Override
+  public String getName()
+  {
+    return name;
+  }
+
+  /**
+   * Set template instance properties overriding the template engine ones. Current implementation deals with
+   * <code>js.template.serialize.prolog</code> and <code>js.template.serialize.operator</code> flags.
+   * <p>
+   * First is used to disable prolog serialization. By default prolog serialization is enabled, see
+   * {@link #serializeProlog}. Use this property to disable it, that to not include XML prolog, respective X(H)MTL
+   * DOCTYPE, into serialization output.
+   * <p>
+   * The second property is used to control operators serialization. By default, templates operators are not included
+   * into resulting document. If one may want to include operators, perhaps in order to enable data extraction, uses
+   * this method. But be warned that if document is validated operators syntax may collide with document grammar and
+   * render document invalid.
+   * <p>
+   * Properties with <code>js.template.flush</code> prefix configure progressive flush policy, see {@link FlushPolicy}.
+   * By default output is flushed only when serialization completes; progressive flush sends document head and
+   * already rendered parts to client while slow content is still rendered, improving time to first byte.
+   * <p>
+   * Property <code>js.template.defer.executor</code> sets the executor used to render elements marked with
+   * <code>data-defer</code> attribute concurrently, see {@link DeferInstruction}. It is ignored for XML documents, in
+   * which case deferred elements are rendered in place.
+   * <p>
+   * Property <code>js.template.parallel.threshold</code> enables parallel rendering for lists with at least given number
+   * of items; list is split into chunks rendered on fork-join pool set by <code>js.template.parallel.pool</code>, by
+   * default common pool. Parallel rendering requires content getters that are safe to call concurrently.
+   * 
+   * @param name property name,
+   * @param value property value.
+   */
+  @Override
+  public void setProperty(String name, Object value)
+  {
+    switch(name) {
+    case "js.template.serialize.prolog":
+      serializeProlog = (Boolean)value;
+      break;
+
+    case "js.template.serialize.operator":
+      serializeOperators = (Boolean)value;
+      if(serializeOperators != program.isOperatorsSerialization()) {
+        // static markup is pre-built at compile time so operators serialization requires a different program
+        program = new Program(program.getDocument(), serializeOperators);
+      }
+      break;
+
+    case "js.template.flush.head":
+      flushPolicy.setHead((Boolean)value);
+      break;
+
+    case "js.template.flush.marked":
+      flushPolicy.setMarked((Boolean)value);
+      break;
+
+    case "js.template.flush.bytes":
+      flushPolicy.setBytes(((Number)value).longValue());
+      break;
+
+    case "js.template.flush.items":
+      flushPolicy.setItems(((Number)value).intValue());
+      break;
+
+    case "js.template.defer.executor":
+      deferExecutor = (Executor)value;
+      break;
+
+    case "js.template.parallel.threshold":
+      parallelThreshold = ((Number)value).intValue();
+      break;
+
+    case "js.template.parallel.pool":
+      parallelPool = (ForkJoinPool)value;
+      break;
+    }
+  }
+
+  @Override
+  public void serialize(Object model, Writer writer) throws IOException
+  {
+    Params.notNull(writer, "Writer");
+    Serializer serializer = Serializer.acquire();
+    try {
+      serializer.setWriter(writer);
+      _serialize(serializer, model);
+    }
+    finally {
+      serializer.release();
+    }
+  }
+
+  /**
+   * Serialize template with given domain model to an output stream, UTF-8 encoded. Static template text is encoded once,
+   * at template compile time, and bytes are copied as they are; only dynamic values are encoded on serialization. Output
+   * stream is flushed but not closed.
+   * 
+   * @param model domain model object to inject into template,
+   * @param stream output stream to serialize template to.
+   * @throws IOException if output stream write operation fails.
+   */
+  public void serialize(Object model, OutputStream stream) throws IOException
+  {
+    Params.notNull(stream, "Output stream");
+    Serializer serializer = Serializer.acquire();
+    try {
+      serializer.setOutputStream(stream);
+      _serialize(serializer, model);
+    }
+    finally {
+      serializer.release();
+    }
+  }
+
+  /**
+   * Serialize template with given domain model to a byte channel, UTF-8 encoded. See
+   * {@link #serialize(Object, OutputStream)} for encoding details. Channel is not closed.
+   * 
+   * @param model domain model object to inject into template,
+   * @param channel byte channel to serialize template to.
+   * @throws IOException if byte channel write operation fails.
+   */
+  public void serialize(Object model, WritableByteChannel channel) throws IOException
+  {
+    Params.notNull(channel, "Byte channel");
+    Serializer serializer = Serializer.acquire();
+    try {
+      serializer.setChannel(channel);
+      _serialize(serializer, model);
+    }
+    finally {
+      serializer.release();
+    }
+  }
+
+  /**
+   * Serialize template with given domain model to a byte buffer, UTF-8 encoded. See
+   * {@link #serialize(Object, OutputStream)} for encoding details. Serialized bytes are put starting with byte buffer
+   * current position.
+   * 
+   * @param model domain model object to inject into template,
+   * @param buffer byte buffer to serialize template to.
+   * @throws IOException if serialization fails.
+   * @throws BufferOverflowException if byte buffer has not enough remaining space for serialized template.
+   */
+  public void serialize(Object model, ByteBuffer buffer) throws IOException
+  {
+    Params.notNull(buffer, "Byte buffer");
+    Serializer serializer = Serializer.acquire();
+    try {
+      serializer.setByteBuffer(buffer);
+      _serialize(serializer, model);
+    }
+    finally {
+      serializer.release();
+    }
+  }
+
+  /**
+   * Serialize template with given domain model to a string. Renders into a not synchronized string builder presized from
+   * the moving average of this template past output lengths, so that builder rarely grows.
+   * 
+   * @param model domain model object to inject into template.
+   * @return serialized template.
+   */
+  @Override
+  public String serialize(Object model)
+  {
+    Program program = this.program;
+    StringBuilder builder = new StringBuilder(program.getOutputLengthEstimate());
+    try {
+      serialize(model, builder);
+    }
+    catch(IOException e) {
+      log.error(e);
+    }
+    program.updateOutputLength(builder.length());
+    return builder.toString();
+  }
+
+  /**
+   * Serialize template with given domain model to an appendable. Output is not buffered since appendable is expected to
+   * be a memory buffer, e.g. {@link StringBuilder}.
+   * 
+   * @param model domain model object to inject into template,
+   * @param appendable appendable to serialize template to.
+   * @throws IOException if appendable append operation fails.
+   */
+  public void serialize(Object model, Appendable appendable) throws IOException
+  {
+    Params.notNull(appendable, "Appendable");
+    Serializer serializer = Serializer.acquire();
+    try {
+      serializer.setAppendable(appendable);
+      _serialize(serializer, model);
+    }
+    finally {
+      serializer.release();
+    }
+  }
+
+  /**
+   * Serialize template with given domain model to a reactive publisher of byte buffers, UTF-8 encoded. Template is
+   * rendered by a {@link RenderTask} on threads from given executor, after subscribe, so subscriber thread, e.g. a network
+   * event loop, is never blocked. While subscriber demand is zero rendering returns its executor thread and holds only
+   * serialization state; next subscriber request resubmits rendering to executor. No executor thread is parked for a slow
+   * client, so a small executor can serve many subscribers.
+   * <p>
+   * Returned publisher renders template once and accepts a single subscriber. See {@link ByteBufferPublisher}.
+   * 
+   * @param model domain model object to inject into template,
+   * @param executor executor for template rendering.
+   * @return serialized template publisher.
+   */
+  public Flow.Publisher<ByteBuffer> publish(Object model, Executor executor)
+  {
+    Params.notNull(executor, "Executor");
+    return new ByteBufferPublisher(stream -> render(model, stream), executor);
+  }
+
+  /**
+   * Create a time sliced serialization of template with given domain model to a writer. Returned task executes
+   * serialization in bounded slices of steps, see {@link RenderTask}, allowing cooperative scheduling of many renders on
+   * a shared executor. Prolog, if enabled, is written by this method.
+   * 
+   * @param model domain model object to inject into template,
+   * @param writer writer to serialize template to.
+   * @return render task, not yet started.
+   * @throws IOException if prolog write operation fails.
+   */
+  public RenderTask render(Object model, Writer writer) throws IOException
+  {
+    Params.notNull(writer, "Writer");
+    Serializer serializer = Serializer.acquire();
+    serializer.setWriter(writer);
+    return render(serializer, model);
+  }
+
+  /**
+   * Create a time sliced serialization of template with given domain model to an output stream, UTF-8 encoded. See
+   * {@link #render(Object, Writer)}.
+   * 
+   * @param model domain model object to inject into template,
+   * @param stream output stream to serialize template to.
+   * @return render task, not yet started.
+   * @throws IOException if prolog write operation fails.
+   */
+  public RenderTask render(Object model, OutputStream stream) throws IOException
+  {
+    Params.notNull(stream, "Output stream");
+    Serializer serializer = Serializer.acquire();
+    serializer.setOutputStream(stream);
+    return render(serializer, model);
+  }
+
+  /**
+   * Create render task for a serializer with output already set. Serializer is released if task creation fails.
+   * 
+   * @param serializer serializer acquired from pool, with output set,
+   * @param model domain model object to inject into template.
+   * @return render task.
+   * @throws IOException if prolog write operation fails.
+   */
+  private RenderTask render(Serializer serializer, Object model) throws IOException
+  {
+    try {
+      return new RenderTask(serializer, _prepare(serializer, model));
+    }
+    catch(IOException | RuntimeException e) {
+      serializer.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Serialize template with given domain model using a serializer with output already set. Walk through template
+   * document from its root and serialize every node; if node contains operators execute them. Operators extract values
+   * from given domain model and process them, result going to the same output.
+   * <p>
+   * Writer does not need to be {@link BufferedWriter}, but is acceptable; serializer output is always buffered. Given
+   * domain model can be an instance of {@link Content} or any POJO containing values needed by template operators. If
+   * domain model is null source document is serialized as it is.
+   * <p>
+   * If output is already closed this method behavior is not defined.
+   * 
+   * @param serializer serializer acquired from pool, with output set,
+   * @param model domain model object to inject into template.
+   * @throws IOException if output write operation fails.
+   */
+  private void _serialize(Serializer serializer, Object model) throws IOException
+  {
+    Traversal traversal = _prepare(serializer, model);
+    if(traversal != null) {
+      traversal.run(Long.MAX_VALUE);
+      serializer.writeDeferred();
+    }
+    serializer.flush();
+  }
+
+  /**
+   * Prepare serializer with output already set for template serialization and return paused traversal for template
+   * instructions. Configure serializer from this template properties, set content and write prolog. If domain model is
+   * null source document is serialized as it is, by this method, and returned traversal is null.
+   * 
+   * @param serializer serializer acquired from pool, with output set,
+   * @param model domain model object to inject into template.
+   * @return paused traversal or null if domain model is null.
+   * @throws IOException if output write operation fails.
+   */
+  private Traversal _prepare(Serializer serializer, Object model) throws IOException
+  {
+    Program program = this.program;
+    Document document = program.getDocument();
+    if(model == null) {
+      document.serialize(serializer.getWriter());
+      return null;
+    }
+
+    if(serializeOperators) {
+      serializer.enableOperatorsSerialization();
+    }
+    if(flushPolicy.isEnabled()) {
+      serializer.setFlushPolicy(flushPolicy);
+    }
+    // deferred fragments are appended after root element and replaced by script; that is valid only for HTML documents
+    if(!document.isXML()) {
+      serializer.setDeferExecutor(deferExecutor);
+    }
+    serializer.setParallelLists(parallelThreshold, parallelPool);
+
+    Content content = model instanceof Content ? (Content)model : new Content(model);
+    serializer.setContent(content);
+
+    if(serializeProlog) {
+      if(document.isXML()) {
+        serializer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n");
+      }
+      else {
+        // if is not XML document should be HTML5
+        serializer.write("<!DOCTYPE HTML>\r\n");
+      }
+    }
+    return serializer.traversal(program.getInstructions(), content.getModel());
+  }
+}
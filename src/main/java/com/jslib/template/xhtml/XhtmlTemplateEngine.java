@@ -1,132 +1,323 @@
-package com.jslib.template.xhtml;
-
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
-import java.io.Reader;
-import java.util.HashMap;
-import java.util.Map;
-
-import org.xml.sax.SAXException;
-
-import com.jslib.api.dom.Document;
-import com.jslib.api.dom.DocumentBuilder;
-import com.jslib.api.log.Log;
-import com.jslib.api.log.LogFactory;
-import com.jslib.api.template.Template;
-import com.jslib.api.template.TemplateEngine;
-import com.jslib.api.template.TemplateException;
-import com.jslib.util.Classes;
-
-/**
- * X(HT)ML implementation for template engine interface. This implementation uses X(HT)ML documents to store templates.
- * Since parsing DOM document is costly this implementation uses internal cache of parsed DOM documents, for all used
- * templates. Anyway, template DOM document is loaded and parsed on the fly, at first usage.
- * <p>
- * This implementation depends on Simplified X(HT)ML DOM Interface and expected a service to provide instance for
- * {@link DocumentBuilder}.
- * 
- * @author Iulian Rotaru
- * @version final
- */
-public class XhtmlTemplateEngine implements TemplateEngine
-{
-  /** Class logger. */
-  private static final Log log = LogFactory.getLog(XhtmlTemplateEngine.class);
-
-  /** DOM document builder. */
-  private DocumentBuilder documentBuilder;
-  /** Cache for parsed DOM documents. */
-  private Map<String, Document> cache = new HashMap<>();
-
-  /**
-   * Loads service instance for DOM document builder.
-   */
-  public XhtmlTemplateEngine()
-  {
-    documentBuilder = Classes.loadService(DocumentBuilder.class);
-  }
-
-  @Override
-  public void setProperty(String name, Object value)
-  {
-  }
-
-  @Override
-  public Template getTemplate(String templateName, Reader reader) throws IOException
-  {
-    Document document = cache.get(templateName);
-    if(document == null) {
-      synchronized(this) {
-        if(document == null) {
-          document = loadTemplateDocument(templateName, documentBuilder, reader);
-          cache.put(templateName, document);
-        }
-      }
-    }
-    return new XhtmlTemplate(templateName, document);
-  }
-
-  @Override
-  public Template getTemplate(File file) throws IOException
-  {
-    return getTemplate(file.getAbsolutePath(), new FileReader(file));
-  }
-
-  /**
-   * Loads and parses template document then returns it.
-   * 
-   * @param builder DOM builder used to load document template,
-   * @param reader template document reader.
-   * @throws IOException if read operation fails or premature EOF.
-   * @throws TemplateException if template document is not XML or HTML.
-   */
-  private static Document loadTemplateDocument(String templateName, DocumentBuilder builder, Reader reader) throws IOException
-  {
-    final int READ_AHEAD_SIZE = 5;
-    BufferedReader bufferedReader = new BufferedReader(reader);
-    bufferedReader.mark(READ_AHEAD_SIZE);
-
-    char[] cbuf = new char[READ_AHEAD_SIZE];
-    for(int i = 0; i < READ_AHEAD_SIZE; ++i) {
-      int c = bufferedReader.read();
-      if(c == -1) {
-        throw new IOException(String.format("Invalid X(HT)ML template |%s|. Premature EOF.", templateName));
-      }
-      cbuf[i] = (char)c;
-    }
-    String header = new String(cbuf);
-    if(header.charAt(0) != '<') {
-      throw new TemplateException("Invalid X(HT)ML template |%s|. Seems not XML like document.", templateName);
-    }
-
-    // trivial heuristic to determine file is XML or HTML; if is not explicitly HTML is considered XML
-    boolean isXML = true;
-    if(header.charAt(1) == '!') {
-      // HTML DOCTYPE always starts with <!
-      isXML = false;
-    }
-    else if(header.charAt(1) == '?') {
-      // XML prolog always starts with <?
-      isXML = true;
-    }
-    else {
-      // if not explicitly found HTML DOCTYPE or XML prolog uses root element to detect if HTML
-      // if anything else but <html document is considered XML
-      log.warn("No prolog found for X(HT)ML template |{template_name}|. Uses root element to detect document type.", templateName);
-      if(header.toLowerCase().startsWith("<html")) {
-        isXML = false;
-      }
-    }
-
-    bufferedReader.reset();
-    try {
-      return isXML ? builder.loadXML(bufferedReader) : builder.loadHTML(bufferedReader);
-    }
-    catch(SAXException e) {
-      throw new IOException(String.format("Fail to load template |%s|. Root cause: %s", templateName, e.getMessage()));
-    }
-    // do not attempt to close reader because DocumentBuilder.load[X|HT]ML() method takes care of that
-  }
-}
+package com.jslib.template.xhtml;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.xml.sax.SAXException;
+
+import com.jslib.api.dom.Document;
+import com.jslib.api.dom.DocumentBuilder;
+import com.jslib.api.log.Log;
+import com.jslib.api.log.LogFactory;
+import com.jslib.api.template.Template;
+import com.jslib.api.template.TemplateEngine;
+import com.jslib.api.template.TemplateException;
+import com.jslib.util.Classes;
+
+/**
+ * X(HT)ML implementation for template engine interface. This implementation uses X(HT)ML documents to store templates.
+ * Since parsing DOM document is costly this implementation uses internal cache of compiled template programs, for all
+ * used templates. Anyway, template DOM document is loaded, parsed and compiled on the fly, at first usage.
+ * <p>
+ * Cache is safe for concurrent access and a template is loaded only once, even if requested concurrently. By default cache
+ * is unbounded; it can be bounded using {@link #setProperty(String, Object)} with next properties:
+ * <ul>
+ * <li><code>js.template.cache.max.entries</code> - maximum number of cached templates,
+ * <li><code>js.template.cache.max.size</code> - budget, in bytes, for estimated retained size of cached templates.
+ * </ul>
+ * When a bound is exceeded least recently used templates are evicted and parsed again on demand.
+ * <p>
+ * Template files are opened only on cache miss and are read using <code>js.template.charset</code> property, default to
+ * UTF-8.
+ * <p>
+ * Template files reload is disabled by default and can be enabled with <code>js.template.reload</code> property, before
+ * loading templates. When enabled, directories of template files are watched by a background thread and changed templates
+ * are invalidated, to be loaded again on next request; see {@link TemplatesWatcher}.
+ * <p>
+ * This implementation depends on Simplified X(HT)ML DOM Interface and expected a service to provide instance for
+ * {@link DocumentBuilder}.
+ * 
+ * @author Iulian Rotaru
+ * @version final
+ */
+public class XhtmlTemplateEngine implements TemplateEngine
+{
+  /** Class logger. */
+  private static final Log log = LogFactory.getLog(XhtmlTemplateEngine.class);
+
+  /** DOM document builder. */
+  private DocumentBuilder documentBuilder;
+  /** Cache for template programs compiled from parsed DOM documents. */
+  private final ProgramCache cache = new ProgramCache();
+  /** Character set for template files, default to UTF-8. */
+  private volatile Charset charset = StandardCharsets.UTF_8;
+  /** Template files watcher, null if template files reload is not enabled. */
+  private volatile TemplatesWatcher watcher;
+
+  /**
+   * Loads service instance for DOM document builder.
+   */
+  public XhtmlTemplateEngine()
+  {
+    documentBuilder = Classes.loadService(DocumentBuilder.class);
+  }
+
+  @Override
+  public void setProperty(String name, Object value)
+  {
+    switch(name) {
+    case "js.template.cache.max.entries":
+      cache.setMaxEntries((int)longValue(value));
+      break;
+
+    case "js.template.cache.max.size":
+      cache.setMaxWeight(longValue(value));
+      break;
+
+    case "js.template.charset":
+      charset = value instanceof Charset ? (Charset)value : Charset.forName(value.toString());
+      break;
+
+    case "js.template.reload":
+      setReload(value instanceof Boolean ? (Boolean)value : Boolean.parseBoolean(value.toString()));
+      break;
+    }
+  }
+
+  @Override
+  public Template getTemplate(String templateName, Reader reader) throws IOException
+  {
+    Program program = cache.get(templateName, () -> new Program(loadTemplateDocument(templateName, documentBuilder, reader), false));
+    return new XhtmlTemplate(templateName, program);
+  }
+
+  @Override
+  public Template getTemplate(File file) throws IOException
+  {
+    return getTemplate(file.toPath(), charset);
+  }
+
+  /**
+   * Get template for given file using configured character set. Template name is file absolute path. File is opened only if
+   * template is not already cached.
+   * 
+   * @param file template file.
+   * @return template instance.
+   * @throws IOException if template file read fails.
+   * @throws TemplateException if template file is not a valid X(HT)ML document.
+   */
+  public Template getTemplate(Path file) throws IOException
+  {
+    return getTemplate(file, charset);
+  }
+
+  /**
+   * Get template for given file using requested character set. Template name is file absolute path. File is opened only if
+   * template is not already cached.
+   * 
+   * @param file template file,
+   * @param charset template file character set.
+   * @return template instance.
+   * @throws IOException if template file read fails.
+   * @throws TemplateException if template file is not a valid X(HT)ML document.
+   */
+  public Template getTemplate(Path file, Charset charset) throws IOException
+  {
+    Path absoluteFile = file.toAbsolutePath();
+    String templateName = absoluteFile.toString();
+    Program program = cache.get(templateName, () -> {
+      TemplatesWatcher watcher = this.watcher;
+      if(watcher != null) {
+        // register before reading file so that changes performed while loading are not lost
+        watcher.watch(absoluteFile);
+      }
+      try (Reader reader = Files.newBufferedReader(absoluteFile, charset)) {
+        return new Program(loadTemplateDocument(templateName, documentBuilder, reader), false);
+      }
+    });
+    return new XhtmlTemplate(templateName, program);
+  }
+
+  /**
+   * Preload all template files from given directory, recursively, in parallel, using common fork join pool. Only files with
+   * <code>htm</code>, <code>html</code>, <code>xhtml</code> and <code>xml</code> extensions are considered templates.
+   * 
+   * @param directory templates directory.
+   * @return preloading report.
+   * @throws IOException if directory scanning fails.
+   */
+  public PreloadReport preload(Path directory) throws IOException
+  {
+    return preload(directory, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Preload all template files from given directory, recursively, in parallel, using requested executor. Only files with
+   * <code>htm</code>, <code>html</code>, <code>xhtml</code> and <code>xml</code> extensions are considered templates.
+   * 
+   * @param directory templates directory,
+   * @param executor executor for templates loading.
+   * @return preloading report.
+   * @throws IOException if directory scanning fails.
+   */
+  public PreloadReport preload(Path directory, Executor executor) throws IOException
+  {
+    List<Path> files;
+    try (Stream<Path> stream = Files.walk(directory)) {
+      files = stream.filter(file -> Files.isRegularFile(file) && isTemplateFile(file)).collect(Collectors.toList());
+    }
+    return preload(files, executor);
+  }
+
+  /**
+   * Load and compile template files in parallel, using requested executor, and wait for all to complete. Loaded templates
+   * are cached, so that first request for a template does not pay for document parsing. Loading failures do not stop
+   * preloading; they are recorded on returned report, together with loading time for every loaded template.
+   * 
+   * @param files template files,
+   * @param executor executor for templates loading.
+   * @return preloading report.
+   */
+  public PreloadReport preload(Collection<Path> files, Executor executor)
+  {
+    PreloadReport report = new PreloadReport();
+    long start = System.nanoTime();
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for(Path file : files) {
+      futures.add(CompletableFuture.runAsync(() -> {
+        String templateName = file.toAbsolutePath().toString();
+        long templateStart = System.nanoTime();
+        try {
+          getTemplate(file);
+          report.addLoadTime(templateName, (System.nanoTime() - templateStart) / 1000000L);
+        }
+        catch(IOException | RuntimeException e) {
+          log.error("Fail to preload template |{template_name}|: {exception}", templateName, e);
+          report.addFailure(templateName, e);
+        }
+      }, executor));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).join();
+
+    report.setTotalTime((System.nanoTime() - start) / 1000000L);
+    log.info(report.toString());
+    return report;
+  }
+
+  /**
+   * Test if file is a template file, considering file extension.
+   * 
+   * @param file file path.
+   * @return true if file has a template file extension.
+   */
+  private static boolean isTemplateFile(Path file)
+  {
+    String fileName = file.getFileName().toString().toLowerCase();
+    return fileName.endsWith(".htm") || fileName.endsWith(".html") || fileName.endsWith(".xhtml") || fileName.endsWith(".xml");
+  }
+
+  /**
+   * Enable or disable template files reload.
+   * 
+   * @param reload true to enable template files reload.
+   * @throws TemplateException if file system watch service cannot be created.
+   */
+  private synchronized void setReload(boolean reload)
+  {
+    if(reload && watcher == null) {
+      try {
+        watcher = new TemplatesWatcher(cache);
+      }
+      catch(IOException e) {
+        throw new TemplateException("Fail to create templates watcher. Root cause: %s", e.getMessage());
+      }
+    }
+    else if(!reload && watcher != null) {
+      watcher.close();
+      watcher = null;
+    }
+  }
+
+  /**
+   * Get numeric property value. Property value can be a number or its string representation.
+   * 
+   * @param value property value.
+   * @return property numeric value.
+   * @throws NumberFormatException if property value is not numeric.
+   */
+  private static long longValue(Object value)
+  {
+    return value instanceof Number ? ((Number)value).longValue() : Long.parseLong(value.toString());
+  }
+
+  /**
+   * Loads and parses template document then returns it.
+   * 
+   * @param builder DOM builder used to load document template,
+   * @param reader template document reader.
+   * @throws IOException if read operation fails or premature EOF.
+   * @throws TemplateException if template document is not XML or HTML.
+   */
+  private static Document loadTemplateDocument(String templateName, DocumentBuilder builder, Reader reader) throws IOException
+  {
+    final int READ_AHEAD_SIZE = 5;
+    BufferedReader bufferedReader = new BufferedReader(reader);
+    bufferedReader.mark(READ_AHEAD_SIZE);
+
+    char[] cbuf = new char[READ_AHEAD_SIZE];
+    for(int i = 0; i < READ_AHEAD_SIZE; ++i) {
+      int c = bufferedReader.read();
+      if(c == -1) {
+        throw new IOException(String.format("Invalid X(HT)ML template |%s|. Premature EOF.", templateName));
+      }
+      cbuf[i] = (char)c;
+    }
+    String header = new String(cbuf);
+    if(header.charAt(0) != '<') {
+      throw new TemplateException("Invalid X(HT)ML template |%s|. Seems not XML like document.", templateName);
+    }
+
+    // trivial heuristic to determine file is XML or HTML; if is not explicitly HTML is considered XML
+    boolean isXML = true;
+    if(header.charAt(1) == '!') {
+      // HTML DOCTYPE always starts with <!
+      isXML = false;
+    }
+    else if(header.charAt(1) == '?') {
+      // XML prolog always starts with <?
+      isXML = true;
+    }
+    else {
+      // if not explicitly found HTML DOCTYPE or XML prolog uses root element to detect if HTML
+      // if anything else but <html document is considered XML
+      log.warn("No prolog found for X(HT)ML template |{template_name}|. Uses root element to detect document type.", templateName);
+      if(header.toLowerCase().startsWith("<html")) {
+        isXML = false;
+      }
+    }
+
+    bufferedReader.reset();
+    try {
+      return isXML ? builder.loadXML(bufferedReader) : builder.loadHTML(bufferedReader);
+    }
+    catch(SAXException e) {
+      throw new IOException(String.format("Fail to load template |%s|. Root cause: %s", templateName, e.getMessage()));
+    }
+    // do not attempt to close reader because DocumentBuilder.load[X|HT]ML() method takes care of that
+  }
+}
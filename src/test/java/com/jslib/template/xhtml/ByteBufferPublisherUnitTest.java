@@ -0,0 +1,183 @@
+package com.jslib.template.xhtml;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import org.xml.sax.SAXException;
+
+public class ByteBufferPublisherUnitTest extends TestCaseEx {
+	public void testPublisherOutput() throws SAXException {
+		XhtmlTemplate template = template(PAGE);
+		template.setProperty("js.template.flush.items", 1);
+
+		PageModel model = new PageModel("title \u0103", "one", "two");
+
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		final List<Object> signals = new ArrayList<>();
+		template.publish(model, Runnable::run).subscribe(new Flow.Subscriber<ByteBuffer>() {
+			private Flow.Subscription subscription;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(ByteBuffer buffer) {
+				signals.add(buffer);
+				stream.write(buffer.array(), buffer.position(), buffer.remaining());
+				subscription.request(1);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				signals.add(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				signals.add("complete");
+			}
+		});
+
+		assertEquals("complete", signals.get(signals.size() - 1));
+		// one buffer per list item plus final flush
+		assertEquals(4, signals.size());
+		assertTrue(Arrays.equals(template.serialize(model).getBytes(StandardCharsets.UTF_8), stream.toByteArray()));
+	}
+
+	public void testSlowSubscriberDoesNotParkThread() throws SAXException {
+		XhtmlTemplate template = template(PAGE);
+		template.setProperty("js.template.flush.items", 1);
+		PageModel model = new PageModel("title", "one", "two");
+
+		// executor only queues rendering passes so test can check that every pass returns
+		final List<Runnable> passes = new ArrayList<>();
+		final List<Object> signals = new ArrayList<>();
+		final Flow.Subscription[] subscription = new Flow.Subscription[1];
+		template.publish(model, passes::add).subscribe(new Flow.Subscriber<ByteBuffer>() {
+			@Override
+			public void onSubscribe(Flow.Subscription s) {
+				subscription[0] = s;
+			}
+
+			@Override
+			public void onNext(ByteBuffer buffer) {
+				signals.add(buffer);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				signals.add(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				signals.add("complete");
+			}
+		});
+
+		// first pass renders up to first buffer and returns since there is no demand
+		assertEquals(1, passes.size());
+		passes.remove(0).run();
+		assertTrue(passes.isEmpty());
+		assertTrue(signals.isEmpty());
+
+		for (int i = 1; i <= 3; ++i) {
+			subscription[0].request(1);
+			assertEquals(1, passes.size());
+			passes.remove(0).run();
+			assertTrue(signals.get(i - 1) instanceof ByteBuffer);
+			if (i < 3) {
+				assertEquals(i, signals.size());
+			}
+		}
+		// last pass publishes final buffer and completes
+		assertTrue(passes.isEmpty());
+		assertEquals(4, signals.size());
+		assertEquals("complete", signals.get(3));
+	}
+
+	public void testCancelWhileWaitingForDemand() throws SAXException {
+		XhtmlTemplate template = template(PAGE);
+		template.setProperty("js.template.flush.items", 1);
+
+		final List<Runnable> passes = new ArrayList<>();
+		final List<Object> signals = new ArrayList<>();
+		final Flow.Subscription[] subscription = new Flow.Subscription[1];
+		template.publish(new PageModel("title", "one", "two"), passes::add).subscribe(new Flow.Subscriber<ByteBuffer>() {
+			@Override
+			public void onSubscribe(Flow.Subscription s) {
+				subscription[0] = s;
+			}
+
+			@Override
+			public void onNext(ByteBuffer buffer) {
+				signals.add(buffer);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				signals.add(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				signals.add("complete");
+			}
+		});
+		passes.remove(0).run();
+
+		// cancel resumes rendering only to release render task; no signal after cancel
+		subscription[0].cancel();
+		assertEquals(1, passes.size());
+		passes.remove(0).run();
+		assertTrue(passes.isEmpty());
+		assertTrue(signals.isEmpty());
+
+		subscription[0].request(1);
+		assertTrue(passes.isEmpty());
+	}
+
+	public void testInvalidRequestAfterLastBuffer() throws SAXException {
+		XhtmlTemplate template = template("<h1 data-text='.'></h1>");
+
+		// no flush policy so the whole document is published as a single buffer, on final flush
+		final List<Object> signals = new ArrayList<>();
+		template.publish("title", Runnable::run).subscribe(new Flow.Subscriber<ByteBuffer>() {
+			private Flow.Subscription subscription;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(ByteBuffer buffer) {
+				signals.add(buffer);
+				subscription.request(0);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				signals.add(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				signals.add("complete");
+			}
+		});
+
+		assertEquals(2, signals.size());
+		assertTrue(signals.get(0) instanceof ByteBuffer);
+		assertTrue(signals.get(1) instanceof IllegalArgumentException);
+	}
+}
@@ -9,8 +9,6 @@ import java.util.List;
 import java.util.TimeZone;
 
 import com.jslib.api.template.TemplateException;
-import com.jslib.lang.InvocationException;
-import com.jslib.util.Classes;
 
 public class ConditionalExpressionUnitTest extends TestCaseEx
 {
@@ -230,8 +228,7 @@ public class ConditionalExpressionUnitTest extends TestCaseEx
     try {
       exercise("string<some value", true);
     }
-    catch(InvocationException e) {
-      assertTrue(e.getCause() instanceof TemplateException);
+    catch(TemplateException expected) {
       return;
     }
     fail("Using string with LESS_THAN operator should rise templates exception.");
@@ -242,8 +239,7 @@ public class ConditionalExpressionUnitTest extends TestCaseEx
     try {
       exercise("string>some value", true);
     }
-    catch(InvocationException e) {
-      assertTrue(e.getCause() instanceof TemplateException);
+    catch(TemplateException expected) {
       return;
     }
     fail("Using string with GREATER_THAN operator should rise templates exception.");
@@ -254,8 +250,7 @@ public class ConditionalExpressionUnitTest extends TestCaseEx
     try {
       exercise("intValue=", true);
     }
-    catch(InvocationException e) {
-      assertTrue(e.getCause() instanceof TemplateException);
+    catch(TemplateException expected) {
       return;
     }
     fail("Missing operand from EQUALS operator should rise templates exception.");
@@ -266,8 +261,7 @@ public class ConditionalExpressionUnitTest extends TestCaseEx
     try {
       exercise("date=1964-03-15 14:30:00", true);
     }
-    catch(InvocationException e) {
-      assertTrue(e.getCause() instanceof TemplateException);
+    catch(TemplateException expected) {
       return;
     }
     fail("Invalid date format should rise templates exception.");
@@ -278,8 +272,7 @@ public class ConditionalExpressionUnitTest extends TestCaseEx
     try {
       exercise("booleanValue=yes", true);
     }
-    catch(InvocationException e) {
-      assertTrue(e.getCause() instanceof TemplateException);
+    catch(TemplateException expected) {
       return;
     }
     fail("Invlaid boolean format should rise templates exception.");
@@ -290,8 +283,7 @@ public class ConditionalExpressionUnitTest extends TestCaseEx
     try {
       exercise("string;value", true);
     }
-    catch(InvocationException e) {
-      assertTrue(e.getCause() instanceof TemplateException);
+    catch(TemplateException expected) {
       return;
     }
     fail("Invlaid opcode should rise templates exception.");
@@ -302,18 +294,30 @@ public class ConditionalExpressionUnitTest extends TestCaseEx
     try {
       exercise("string=", true);
     }
-    catch(InvocationException e) {
-      assertTrue(e.getCause() instanceof TemplateException);
+    catch(TemplateException expected) {
       return;
     }
     fail("Invlaid opcode should rise templates exception.");
   }
 
+  public void testReuseParsedExpression() throws Throwable
+  {
+    ConditionalExpression conditionalExpression = new ConditionalExpression("intValue>19640000");
+    Content content = new Content(data);
+    assertTrue(conditionalExpression.evaluate(content, data));
+
+    data.intValue = 1964;
+    assertFalse(conditionalExpression.evaluate(content, data));
+
+    conditionalExpression = new ConditionalExpression("!date=1964-03-15");
+    assertFalse(conditionalExpression.evaluate(content, data));
+    assertEquals("!date=1964-03-15", conditionalExpression.toString());
+  }
+
   private void exercise(String expression, boolean expected) throws Throwable
   {
     Content content = new Content(data);
-    Object conditionalExpression = Classes.newInstance("com.jslib.template.xhtml.ConditionalExpression", content, data, expression);
-    assertEquals(expected, (boolean)Classes.invoke(conditionalExpression, "value"));
+    assertEquals(expected, new ConditionalExpression(expression).evaluate(content, data));
   }
 
   private static enum State
@@ -0,0 +1,75 @@
+package com.jslib.template.xhtml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.xml.sax.SAXException;
+
+public class EscapingWriterUnitTest extends TestCaseEx {
+	public void testEscape() throws IOException {
+		assertEquals("&lt;&gt;&amp;&quot;&apos;", escape("<>&\"'"));
+		assertEquals("a &lt; b &amp;&amp; c", escape("a < b && c"));
+		assertEquals("clean text", escape("clean text"));
+		assertEquals("", escape(""));
+		assertEquals("\u0103\u00EE &amp; \u20AC", escape("\u0103\u00EE & \u20AC"));
+	}
+
+	public void testEscapeLargeText() throws IOException {
+		StringBuilder text = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 5000; ++i) {
+			text.append("x<");
+			expected.append("x&lt;");
+		}
+		assertEquals(expected.toString(), escape(text.toString()));
+	}
+
+	public void testUtf8UnpairedSurrogates() throws IOException {
+		String[] texts = new String[] { "text \uD83D", "\uD83D text", "\uDE00 text", "\uD83D\uDE00 \u0103" };
+		for (String text : texts) {
+			assertTrue(text, Arrays.equals(text.getBytes(StandardCharsets.UTF_8), utf8(text)));
+		}
+		assertEquals("text ?", new String(utf8("text \uD83D"), StandardCharsets.UTF_8));
+	}
+
+	public void testUtf8Output() throws SAXException, IOException {
+		XhtmlTemplate template = template("<p>static \u00EE\u20AC text</p>" + PAGE);
+		PageModel model = new PageModel("title \u0103 <&> \uD83D\uDE00", "one", "\u20AC two");
+		byte[] expected = template.serialize(model).getBytes(StandardCharsets.UTF_8);
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		template.serialize(model, stream);
+		assertTrue(Arrays.equals(expected, stream.toByteArray()));
+
+		stream.reset();
+		template.serialize(model, Channels.newChannel(stream));
+		assertTrue(Arrays.equals(expected, stream.toByteArray()));
+
+		ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+		template.serialize(model, buffer);
+		assertTrue(Arrays.equals(expected, buffer.array()));
+	}
+
+	private static String escape(String text) throws IOException {
+		StringWriter target = new StringWriter();
+		ReusableBufferedWriter writer = new ReusableBufferedWriter();
+		writer.reset(target);
+		writer.writeEscaped(text);
+		writer.flush();
+		return target.toString();
+	}
+
+	private static byte[] utf8(String text) throws IOException {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		Utf8Writer writer = new Utf8Writer();
+		writer.reset(target);
+		writer.write(text);
+		writer.flush();
+		return target.toByteArray();
+	}
+}
@@ -0,0 +1,53 @@
+package com.jslib.template.xhtml;
+
+import com.jslib.api.template.TemplateException;
+
+public class OperatorFactoryUnitTest extends TestCaseEx {
+	public void testRegisteredOpcodes() {
+		OperatorFactory factory = new OperatorFactory(new Serializer());
+		for (Opcode opcode : Opcode.values()) {
+			if (opcode != Opcode.NONE) {
+				assertNotNull(opcode.toString(), factory.getInstance(opcode));
+			}
+		}
+		assertTrue(factory.getInstance(Opcode.IF) instanceof IfOperator);
+		assertTrue(factory.getInstance(Opcode.TEXT) instanceof TextOperator);
+		assertTrue(factory.getInstance(Opcode.OLIST) instanceof OListOperator);
+		assertTrue(factory.getInstance(Opcode.NUMBERING) instanceof NumberingOperator);
+	}
+
+	public void testUnregisteredOpcodes() {
+		OperatorFactory factory = new OperatorFactory(new Serializer());
+		try {
+			factory.getInstance(Opcode.NONE);
+			fail("Unregistered opcode should rise templates exception.");
+		} catch (TemplateException expected) {
+		}
+
+		// IFNOT and CASE operators are not implemented and their attributes resolve to not registered opcode
+		for (String attrName : new String[] { "data-ifnot", "data-case" }) {
+			Opcode opcode = Opcode.fromAttrName(attrName);
+			assertEquals(Opcode.NONE, opcode);
+			try {
+				factory.getInstance(opcode);
+				fail("Unregistered opcode should rise templates exception.");
+			} catch (TemplateException expected) {
+			}
+		}
+	}
+
+	public void testPooledOperatorsContent() {
+		OperatorFactory factory = new OperatorFactory(new Serializer());
+		Content content = new Content(new Object());
+		factory.setContent(content);
+		for (Opcode opcode : Opcode.values()) {
+			if (opcode != Opcode.NONE) {
+				assertSame(content, factory.getInstance(opcode).content);
+			}
+		}
+
+		// content reference is released after serialization, so pooled operators do not retain model
+		factory.setContent(null);
+		assertNull(factory.getInstance(Opcode.TEXT).content);
+	}
+}
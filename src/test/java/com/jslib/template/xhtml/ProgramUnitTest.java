@@ -0,0 +1,75 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+
+import org.xml.sax.SAXException;
+
+import com.jslib.api.dom.Document;
+import com.jslib.api.dom.EList;
+
+public class ProgramUnitTest extends TestCaseEx {
+	public void testCompiledStructure() throws SAXException {
+		Program program = new Program(document(PAGE), false);
+
+		Instruction[] instructions = program.getInstructions();
+		assertEquals(4, instructions.length);
+		assertEquals("<html><head></head><body>", ((TextInstruction) instructions[0]).getText().toLowerCase());
+		assertEquals("</body></html>", ((TextInstruction) instructions[3]).getText().toLowerCase());
+
+		ElementInstruction list = (ElementInstruction) instructions[2];
+		assertEquals(0, list.getChildren().length);
+		assertNotNull(list.getItemTemplate(0));
+		assertNull(list.getItemTemplate(1));
+		assertTrue(list.getItemTemplate(0).getOperators().hasContentOperator());
+	}
+
+	public void testStaticMarkupCoalescing() throws SAXException {
+		String html = "" + //
+				"<div id='static' class='box'><p>static &amp; text</p></div>" + //
+				"<p data-if='flag' title='title'>text <span data-text='title'></span> text</p>";
+		Program program = new Program(document(html), false);
+
+		Instruction[] instructions = program.getInstructions();
+		assertEquals(3, instructions.length);
+		String text = ((TextInstruction) instructions[0]).getText().toLowerCase();
+		assertTrue(text.endsWith("<p>static &amp; text</p></div>"));
+
+		ElementInstruction paragraph = (ElementInstruction) instructions[1];
+		assertEquals("<p title=\"title\">", paragraph.getStartTag().toLowerCase());
+		assertEquals("</p>", paragraph.getEndTag().toLowerCase());
+		Instruction[] children = paragraph.getChildren();
+		assertEquals(3, children.length);
+		assertEquals("text ", ((TextInstruction) children[0]).getText());
+		assertEquals(" text", ((TextInstruction) children[2]).getText());
+	}
+
+	public void testProgramReuse() throws SAXException {
+		XhtmlTemplate template = template(PAGE);
+
+		PageModel model = new PageModel("first", "one");
+		Document doc = getBuilder().parseHTML(template.serialize(model));
+		assertEquals("first", doc.getByTag("h1").getText());
+		assertEquals(1, doc.findByTag("li").size());
+
+		model.title = "second";
+		model.items.add("two");
+		doc = getBuilder().parseHTML(template.serialize(model));
+		assertEquals("second", doc.getByTag("h1").getText());
+		EList elist = doc.findByTag("li");
+		assertEquals(2, elist.size());
+		assertEquals("two", elist, 1);
+	}
+
+	public void testOutputLengthEstimate() throws SAXException, IOException {
+		Program program = new Program(document(PAGE), false);
+		XhtmlTemplate template = new XhtmlTemplate("test", program);
+
+		PageModel model = new PageModel("title", "one");
+		String text = template.serialize(model);
+		assertEquals(text.length() + text.length() / 8, program.getOutputLengthEstimate());
+
+		StringBuilder builder = new StringBuilder();
+		template.serialize(model, builder);
+		assertEquals(text, builder.toString());
+	}
+}
@@ -0,0 +1,54 @@
+package com.jslib.template.xhtml;
+
+import com.jslib.api.template.TemplateException;
+
+public class PropertyPathUnitTest extends TestCaseEx {
+	public void testAnonymous() {
+		PropertyPath path = new PropertyPath(".");
+		assertTrue(path.isAnonymous());
+		assertFalse(path.isAbsolute());
+		assertEquals(0, path.size());
+	}
+
+	public void testRelative() {
+		PropertyPath path = new PropertyPath("car.wheels.1.manufacturer");
+		assertFalse(path.isAnonymous());
+		assertFalse(path.isAbsolute());
+		assertEquals(4, path.size());
+		assertEquals("car", path.getProperty(0));
+		assertEquals(PropertyPath.NOT_INDEX, path.getIndex(0));
+		assertEquals("1", path.getProperty(2));
+		assertEquals(1, path.getIndex(2));
+		assertEquals("manufacturer", path.getProperty(3));
+		assertEquals("car.wheels.1.manufacturer", path.toString());
+	}
+
+	public void testAbsolute() {
+		PropertyPath path = new PropertyPath(".person.name");
+		assertFalse(path.isAnonymous());
+		assertTrue(path.isAbsolute());
+		assertEquals(2, path.size());
+		assertEquals("person", path.getProperty(0));
+		assertEquals("name", path.getProperty(1));
+	}
+
+	/** Property path parsing should mimic String#split, used by previous implementation, that ignores trailing empty parts. */
+	public void testTrailingDots() {
+		PropertyPath path = new PropertyPath("person.name..");
+		assertEquals(2, path.size());
+		assertEquals("name", path.getProperty(1));
+
+		path = new PropertyPath("person..name");
+		assertEquals(3, path.size());
+		assertEquals("", path.getProperty(1));
+	}
+
+	public void testEmpty() {
+		try {
+			new PropertyPath("");
+		} catch (TemplateException e) {
+			return;
+		}
+		fail("Empty property path should rise templates exception.");
+	}
+}
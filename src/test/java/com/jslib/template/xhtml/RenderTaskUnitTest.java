@@ -0,0 +1,27 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.xml.sax.SAXException;
+
+public class RenderTaskUnitTest extends TestCaseEx {
+	public void testTimeSlicedRender() throws SAXException, IOException {
+		XhtmlTemplate template = template("<h1 data-text='title'></h1><ol data-olist='items'><li><b data-numbering='%n.'></b><span data-text='.'></span></li></ol>");
+
+		PageModel model = new PageModel("title");
+		for (int i = 0; i < 10; ++i) {
+			model.items.add("item" + i);
+		}
+
+		StringWriter writer = new StringWriter();
+		RenderTask task = template.render(model, writer);
+		int slices = 1;
+		while (!task.run(1)) {
+			++slices;
+		}
+		assertTrue(task.isDone());
+		assertTrue(slices > model.items.size());
+		assertEquals(template.serialize(model), writer.toString());
+	}
+}
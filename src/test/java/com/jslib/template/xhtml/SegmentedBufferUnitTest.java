@@ -0,0 +1,57 @@
+package com.jslib.template.xhtml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+public class SegmentedBufferUnitTest extends TestCaseEx {
+	public void testWriteTo() throws IOException {
+		byte[] bytes = bytes(40000);
+		SegmentedBuffer buffer = new SegmentedBuffer();
+		buffer.write(bytes, 0, 100);
+		buffer.write(bytes[100]);
+		buffer.write(bytes, 101, bytes.length - 101);
+		assertEquals(bytes.length, buffer.size());
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		buffer.writeTo(stream);
+		assertTrue(Arrays.equals(bytes, stream.toByteArray()));
+
+		File file = File.createTempFile("segmented", ".bin");
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+			buffer.writeTo(channel);
+		}
+		assertTrue(Arrays.equals(bytes, Files.readAllBytes(file.toPath())));
+		file.delete();
+
+		buffer.close();
+		assertEquals(0, buffer.size());
+		buffer.write(bytes, 0, 10);
+		assertEquals(10, buffer.size());
+		buffer.close();
+	}
+
+	public void testDigest() throws NoSuchAlgorithmException {
+		byte[] bytes = bytes(20000);
+		try (SegmentedBuffer buffer = new SegmentedBuffer()) {
+			buffer.write(bytes, 0, bytes.length);
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			buffer.updateDigest(digest);
+			assertTrue(Arrays.equals(MessageDigest.getInstance("SHA-256").digest(bytes), digest.digest()));
+		}
+	}
+
+	private static byte[] bytes(int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; ++i) {
+			bytes[i] = (byte) i;
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,150 @@
+package com.jslib.template.xhtml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.xml.sax.SAXException;
+
+public class SerializerUnitTest extends TestCaseEx {
+	public void testDeferredFragments() throws SAXException, IOException {
+		XhtmlTemplate template = template(PAGE.replace("<h1", "<h1 data-defer='true'"));
+		PageModel model = new PageModel("title", "one");
+		String inPlace = template.serialize(model);
+		assertTrue(inPlace.contains("<body><h1>title</h1><ul>"));
+		assertFalse(inPlace.contains("data-defer"));
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			template.setProperty("js.template.defer.executor", executor);
+			String document = template.serialize(model);
+			assertTrue(document.contains("<body><template id=\"js-defer-1\"></template><ul>"));
+			assertTrue(document.endsWith("<template><h1>title</h1></template><script>jsDefer(1)</script>"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	public void testDeferredXmlInPlace() throws SAXException, IOException {
+		String xml = "<root><name data-text='title' data-defer='true'></name></root>";
+		XhtmlTemplate template = new XhtmlTemplate("test", getBuilder().parseXML(xml));
+		template.setProperty("js.template.serialize.prolog", false);
+
+		final List<Runnable> tasks = new ArrayList<>();
+		template.setProperty("js.template.defer.executor", (Executor) tasks::add);
+
+		PageModel model = new PageModel("title");
+		String document = template.serialize(model);
+		assertTrue(tasks.isEmpty());
+		assertTrue(document.endsWith("<name>title</name></root>"));
+		assertFalse(document.contains("js-defer"));
+	}
+
+	public void testDeferredCancelledOnFailure() throws SAXException {
+		XhtmlTemplate template = template("<h1 data-text='title' data-defer='true'></h1>");
+
+		// executor never runs deferred fragments; they are pending when serialization fails
+		final List<Runnable> tasks = new ArrayList<>();
+		template.setProperty("js.template.defer.executor", (Executor) tasks::add);
+
+		PageModel model = new PageModel("title");
+		try {
+			template.serialize(model, new FailingWriter());
+			fail("Failing writer should throw IO exception.");
+		} catch (IOException expected) {
+		}
+		assertEquals(1, tasks.size());
+		assertTrue(((Future<?>) tasks.get(0)).isCancelled());
+	}
+
+	public void testProgressiveFlush() throws SAXException, IOException {
+		XhtmlTemplate template = template(PAGE.replace("<h1", "<h1 data-flush='true'"));
+		template.setProperty("js.template.flush.head", true);
+		template.setProperty("js.template.flush.marked", true);
+		template.setProperty("js.template.flush.items", 2);
+
+		PageModel model = new PageModel("title", "one", "two", "three");
+		List<String> chunks = new ArrayList<>();
+		template.serialize(model, new FlushRecorder(chunks));
+
+		String document = chunks.get(chunks.size() - 1);
+		assertEquals(template.serialize(model), document);
+		assertFalse(document.contains("data-flush"));
+		assertTrue(chunks.get(0).endsWith("</head>"));
+		assertTrue(chunks.get(1).endsWith("<h1>title</h1>"));
+		assertTrue(chunks.get(2).endsWith("<li>two</li>"));
+	}
+
+	public void testHeadFlushWithOperator() throws SAXException, IOException {
+		String html = "<html><head data-object='.'><title data-text='title'></title></head><body><h1 data-text='title'></h1></body></html>";
+		XhtmlTemplate template = new XhtmlTemplate("test", getBuilder().parseHTML(html));
+		template.setProperty("js.template.flush.head", true);
+
+		PageModel model = new PageModel("title");
+
+		List<String> chunks = new ArrayList<>();
+		template.serialize(model, new FlushRecorder(chunks));
+
+		assertEquals(2, chunks.size());
+		assertTrue(chunks.get(0).toLowerCase().endsWith("<title>title</title></head>"));
+		assertEquals(template.serialize(model), chunks.get(1));
+	}
+
+	public void testReleaseResetsState() throws IOException {
+		Serializer serializer = Serializer.acquire();
+		StringBuilder builder = new StringBuilder();
+		serializer.setAppendable(builder);
+		serializer.getIndexes().push(new Index());
+		FlushPolicy flushPolicy = new FlushPolicy();
+		flushPolicy.setHead(true);
+		serializer.setFlushPolicy(flushPolicy);
+		serializer.write("text");
+		assertTrue(serializer.isHeadFlush());
+		serializer.release();
+
+		// released serializer goes back to pool with clean state
+		assertEquals("text", builder.toString());
+		assertTrue(serializer.getIndexes().isEmpty());
+		assertFalse(serializer.isHeadFlush());
+	}
+
+	// ------------------------------------------------------
+	// fixture initialization and helpers
+
+	/** Output stream that records document written so far on every flush. */
+	private static class FlushRecorder extends ByteArrayOutputStream {
+		private final List<String> chunks;
+
+		FlushRecorder(List<String> chunks) {
+			this.chunks = chunks;
+		}
+
+		@Override
+		public void flush() {
+			chunks.add(new String(toByteArray(), StandardCharsets.UTF_8));
+		}
+	}
+
+	private static class FailingWriter extends Writer {
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			throw new IOException("Write failure.");
+		}
+
+		@Override
+		public void flush() throws IOException {
+			throw new IOException("Flush failure.");
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -1,62 +1,106 @@
-package com.jslib.template.xhtml;
-
-import java.io.IOException;
-import java.io.StringWriter;
-import java.util.TimeZone;
-
-import org.junit.Ignore;
-import org.xml.sax.SAXException;
-
-import com.jslib.api.dom.Document;
-import com.jslib.api.dom.DocumentBuilder;
-import com.jslib.api.dom.EList;
-import com.jslib.dom.DocumentBuilderImpl;
-
-import junit.framework.TestCase;
-
-@Ignore
-class TestCaseEx extends TestCase
-{
-  private static boolean initialized;
-
-  @Override
-  protected void setUp() throws Exception
-  {
-    super.setUp();
-    if(!initialized) {
-      initialized = true;
-      TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
-    }
-  }
-
-  protected static DocumentBuilder getBuilder()
-  {
-    return new DocumentBuilderImpl();
-  }
-
-  protected static Document run(String bodyFragment, Object model) throws SAXException
-  {
-    StringBuilder htmlBuilder = new StringBuilder();
-    htmlBuilder.append("<html><head></head><body>");
-    htmlBuilder.append(bodyFragment);
-    htmlBuilder.append("</body></html>");
-
-    DocumentBuilder builder = getBuilder();
-    Document document = builder.parseHTML(htmlBuilder.toString());
-    XhtmlTemplate template = new XhtmlTemplate("test", document);
-
-    StringWriter writer = new StringWriter();
-    try {
-      template.serialize(model, writer);
-    }
-    catch(IOException e) {
-      fail(e.getMessage());
-    }
-    return builder.parseHTML(writer.toString());
-  }
-
-  protected static void assertEquals(String expected, EList elist, int index)
-  {
-    assertEquals(expected, elist.item(index).getText().trim());
-  }
-}
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Ignore;
+import org.xml.sax.SAXException;
+
+import com.jslib.api.dom.Document;
+import com.jslib.api.dom.DocumentBuilder;
+import com.jslib.api.dom.EList;
+import com.jslib.dom.DocumentBuilderImpl;
+
+import junit.framework.TestCase;
+
+@Ignore
+class TestCaseEx extends TestCase
+{
+  private static boolean initialized;
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    super.setUp();
+    if(!initialized) {
+      initialized = true;
+      TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+  }
+
+  protected static DocumentBuilder getBuilder()
+  {
+    return new DocumentBuilderImpl();
+  }
+
+  /**
+   * Parse HTML document with given body fragment and empty head.
+   * 
+   * @param bodyFragment body inner HTML.
+   * @return template document.
+   * @throws SAXException if body fragment is not valid.
+   */
+  protected static Document document(String bodyFragment) throws SAXException
+  {
+    StringBuilder htmlBuilder = new StringBuilder();
+    htmlBuilder.append("<html><head></head><body>");
+    htmlBuilder.append(bodyFragment);
+    htmlBuilder.append("</body></html>");
+    return getBuilder().parseHTML(htmlBuilder.toString());
+  }
+
+  /**
+   * Create template for HTML document with given body fragment, see {@link #document(String)}.
+   * 
+   * @param bodyFragment body inner HTML.
+   * @return template instance.
+   * @throws SAXException if body fragment is not valid.
+   */
+  protected static XhtmlTemplate template(String bodyFragment) throws SAXException
+  {
+    return new XhtmlTemplate("test", document(bodyFragment));
+  }
+
+  protected static Document run(String bodyFragment, Object model) throws SAXException
+  {
+    DocumentBuilder builder = getBuilder();
+    XhtmlTemplate template = template(bodyFragment);
+
+    StringWriter writer = new StringWriter();
+    try {
+      template.serialize(model, writer);
+    }
+    catch(IOException e) {
+      fail(e.getMessage());
+    }
+    return builder.parseHTML(writer.toString());
+  }
+
+  protected static void assertEquals(String expected, EList elist, int index)
+  {
+    assertEquals(expected, elist.item(index).getText().trim());
+  }
+
+  // ------------------------------------------------------
+  // shared page fixture: heading and list, used by serialization tests
+
+  /** Page body fragment with title heading and items list, to be used with {@link PageModel}. */
+  protected static final String PAGE = "<h1 data-text='title'></h1><ul data-list='items'><li data-text='.'></li></ul>";
+
+  /** Model for {@link #PAGE} fixture. */
+  protected static class PageModel
+  {
+    String title;
+    List<String> items = new ArrayList<>();
+
+    PageModel(String title, String... items)
+    {
+      this.title = title;
+      this.items.addAll(Arrays.asList(items));
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package com.jslib.template.xhtml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jslib.api.template.Template;
+import com.jslib.api.template.TemplateException;
+
+public class XhtmlTemplateEngineUnitTest extends TestCaseEx {
+	private static final String HTML = "<!DOCTYPE html><html><head></head><body><h1 data-text='.'></h1></body></html>";
+
+	/** Maximum time, in milliseconds, to wait for file system events delivered by templates watcher. */
+	private static final long WATCH_TIMEOUT = 10000;
+
+	public void testConcurrentLoading() throws Exception {
+		final int THREADS = 8;
+		XhtmlTemplateEngine engine = new XhtmlTemplateEngine();
+		AtomicInteger loadsCount = new AtomicInteger();
+		CountDownLatch startSignal = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			@SuppressWarnings("unchecked")
+			Future<Template>[] futures = new Future[THREADS];
+			for (int i = 0; i < THREADS; ++i) {
+				futures[i] = executor.submit(() -> {
+					startSignal.await();
+					return engine.getTemplate("test", new CountingReader(HTML, loadsCount));
+				});
+			}
+			startSignal.countDown();
+			for (Future<Template> future : futures) {
+				assertEquals("<h1>title</h1>", body(future.get(10, TimeUnit.SECONDS).serialize("title")));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, loadsCount.get());
+	}
+
+	public void testRetryAfterFailedLoading() throws IOException {
+		XhtmlTemplateEngine engine = new XhtmlTemplateEngine();
+		try {
+			engine.getTemplate("test", new StringReader("<"));
+			fail("Premature EOF should rise IO exception.");
+		} catch (IOException expected) {
+		}
+
+		Template template = engine.getTemplate("test", new StringReader(HTML));
+		assertEquals("<h1>title</h1>", body(template.serialize("title")));
+	}
+
+	public void testMaxEntriesEviction() throws IOException {
+		XhtmlTemplateEngine engine = new XhtmlTemplateEngine();
+		engine.setProperty("js.template.cache.max.entries", 2);
+		AtomicInteger loadsCount = new AtomicInteger();
+
+		engine.getTemplate("first", new CountingReader(HTML, loadsCount));
+		engine.getTemplate("second", new CountingReader(HTML, loadsCount));
+		engine.getTemplate("first", new CountingReader(HTML, loadsCount));
+		assertEquals(2, loadsCount.get());
+
+		// third template evicts least recently used one, that is, the second
+		engine.getTemplate("third", new CountingReader(HTML, loadsCount));
+		engine.getTemplate("first", new CountingReader(HTML, loadsCount));
+		assertEquals(3, loadsCount.get());
+		engine.getTemplate("second", new CountingReader(HTML, loadsCount));
+		assertEquals(4, loadsCount.get());
+	}
+
+	public void testMaxSizeEviction() throws IOException {
+		XhtmlTemplateEngine engine = new XhtmlTemplateEngine();
+		engine.setProperty("js.template.cache.max.size", "1");
+		AtomicInteger loadsCount = new AtomicInteger();
+
+		// cache budget is smaller than any template so every request parses template again
+		Template template = engine.getTemplate("test", new CountingReader(HTML, loadsCount));
+		engine.getTemplate("test", new CountingReader(HTML, loadsCount));
+		assertEquals(2, loadsCount.get());
+		assertEquals("<h1>title</h1>", body(template.serialize("title")));
+	}
+
+	public void testFileNotOpenedOnCacheHit() throws IOException {
+		Path file = Files.createTempFile("template", ".htm");
+		Files.write(file, HTML.replace("<body>", "<body><p>\u0219</p>").getBytes(StandardCharsets.UTF_8));
+
+		XhtmlTemplateEngine engine = new XhtmlTemplateEngine();
+		Template template = engine.getTemplate(file);
+		assertEquals(file.toAbsolutePath().toString(), template.getName());
+		assertEquals("<p>\u0219</p><h1>title</h1>", body(template.serialize("title")));
+
+		// cached template is retrieved without opening template file
+		Files.delete(file);
+		template = engine.getTemplate(file.toFile());
+		assertEquals("<p>\u0219</p><h1>title</h1>", body(template.serialize("title")));
+	}
+
+	public void testPreload() throws IOException {
+		Path directory = Files.createTempDirectory("templates");
+		Path valid = directory.resolve("valid.html");
+		Path invalid = directory.resolve("invalid.htm");
+		Files.write(valid, HTML.getBytes(StandardCharsets.UTF_8));
+		Files.write(invalid, "<".getBytes(StandardCharsets.UTF_8));
+		Files.write(directory.resolve("readme.txt"), "not a template".getBytes(StandardCharsets.UTF_8));
+
+		XhtmlTemplateEngine engine = new XhtmlTemplateEngine();
+		PreloadReport report = engine.preload(directory);
+		assertFalse(report.isSuccess());
+		assertEquals(1, report.getLoadTimes().size());
+		assertTrue(report.getLoadTimes().containsKey(valid.toAbsolutePath().toString()));
+		assertEquals(1, report.getFailures().size());
+		assertTrue(report.getFailures().get(invalid.toAbsolutePath().toString()) instanceof IOException);
+
+		// preloaded template is served from cache
+		Files.delete(valid);
+		Files.delete(invalid);
+		Files.delete(directory.resolve("readme.txt"));
+		Files.delete(directory);
+		assertEquals("<h1>title</h1>", body(engine.getTemplate(valid).serialize("title")));
+	}
+
+	public void testReloadModifiedTemplate() throws Exception {
+		Path file = Files.createTempFile("template", ".htm");
+		Files.write(file, HTML.getBytes(StandardCharsets.UTF_8));
+
+		XhtmlTemplateEngine engine = new XhtmlTemplateEngine();
+		engine.setProperty("js.template.reload", true);
+		try {
+			assertEquals("<h1>title</h1>", body(engine.getTemplate(file).serialize("title")));
+
+			Files.write(file, HTML.replace("h1", "h2").getBytes(StandardCharsets.UTF_8));
+			String body = null;
+			// watch service delivers file events asynchronously
+			for (long deadline = System.currentTimeMillis() + WATCH_TIMEOUT; System.currentTimeMillis() < deadline; Thread.sleep(50)) {
+				try {
+					body = body(engine.getTemplate(file).serialize("title"));
+				} catch (IOException | TemplateException e) {
+					// template file read while still being written; retry on next file event
+					continue;
+				}
+				if (body.equals("<h2>title</h2>")) {
+					break;
+				}
+			}
+			assertEquals("<h2>title</h2>", body);
+		} finally {
+			engine.setProperty("js.template.reload", false);
+			Files.deleteIfExists(file);
+		}
+	}
+
+	public void testReloadDeletedTemplate() throws Exception {
+		Path file = Files.createTempFile("template", ".htm");
+		Files.write(file, HTML.getBytes(StandardCharsets.UTF_8));
+
+		XhtmlTemplateEngine engine = new XhtmlTemplateEngine();
+		engine.setProperty("js.template.reload", true);
+		try {
+			assertEquals("<h1>title</h1>", body(engine.getTemplate(file).serialize("title")));
+
+			// deleted template is invalidated so next request tries to open missing file
+			Files.delete(file);
+			IOException missingFile = null;
+			for (long deadline = System.currentTimeMillis() + WATCH_TIMEOUT; System.currentTimeMillis() < deadline; Thread.sleep(50)) {
+				try {
+					engine.getTemplate(file);
+				} catch (IOException e) {
+					missingFile = e;
+					break;
+				}
+			}
+			assertNotNull(missingFile);
+		} finally {
+			engine.setProperty("js.template.reload", false);
+		}
+	}
+
+	// ------------------------------------------------------
+	// fixture initialization and helpers
+
+	private static String body(String html) {
+		html = html.toLowerCase();
+		return html.substring(html.indexOf("<body>") + 6, html.indexOf("</body>"));
+	}
+
+	/** String reader that counts template loads, that is, the number of times its content is read from start. */
+	private static class CountingReader extends StringReader {
+		private final AtomicInteger loadsCount;
+		private boolean touched;
+
+		public CountingReader(String s, AtomicInteger loadsCount) {
+			super(s);
+			this.loadsCount = loadsCount;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			touch();
+			return super.read(cbuf, off, len);
+		}
+
+		@Override
+		public int read() throws IOException {
+			touch();
+			return super.read();
+		}
+
+		private void touch() {
+			if (!touched) {
+				touched = true;
+				loadsCount.incrementAndGet();
+			}
+		}
+	}
+}